@@ -0,0 +1,121 @@
+package mosbach.dhbw.de.tasks.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small bounded LRU cache with a per-entry expiry time.
+ * Thread-safe; meant for hot-path lookups where a miss simply falls back to the real source.
+ */
+public class ExpiringCache<K, V> {
+
+    private final int maxEntries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LinkedHashMap<K, CachedValue<V>> map;
+
+    public ExpiringCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        // access-order = true -> eldest entry is the least recently used one
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+                if (size() > ExpiringCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key) {
+        if (key == null) return null;
+        long now = System.currentTimeMillis();
+        synchronized (map) {
+            CachedValue<V> e = map.get(key);
+            if (e != null) {
+                if (e.expiresAtMillis > now) {
+                    hits.increment();
+                    return e.value;
+                }
+                map.remove(key);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        if (key == null || value == null) return;
+        if (expiresAtMillis <= System.currentTimeMillis()) return;
+        synchronized (map) {
+            map.put(key, new CachedValue<>(value, expiresAtMillis));
+        }
+    }
+
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, System.currentTimeMillis() + ttl.toMillis());
+    }
+
+    /**
+     * Atomically stores the value unless a live entry exists.
+     *
+     * @return the existing live value, or null if the given value was stored
+     */
+    public V putIfAbsent(K key, V value, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        synchronized (map) {
+            CachedValue<V> e = map.get(key);
+            if (e != null && e.expiresAtMillis > now) {
+                hits.increment();
+                return e.value;
+            }
+            misses.increment();
+            map.put(key, new CachedValue<>(value, expiresAtMillis));
+            return null;
+        }
+    }
+
+    public V invalidate(K key) {
+        if (key == null) return null;
+        synchronized (map) {
+            CachedValue<V> e = map.remove(key);
+            return e != null ? e.value : null;
+        }
+    }
+
+    public void clear() {
+        synchronized (map) {
+            map.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("size", size());
+        out.put("maxEntries", maxEntries);
+        out.put("hits", h);
+        out.put("misses", m);
+        out.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        out.put("evictions", evictions.sum());
+        out.put("expirations", expirations.sum());
+        return out;
+    }
+
+    private record CachedValue<V>(V value, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,37 @@
+package mosbach.dhbw.de.tasks.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import mosbach.dhbw.de.tasks.web.RequestDeadline;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * JPA transaction manager that caps every transaction timeout to the remaining request budget.
+ * Hibernate turns the timeout into JDBC query timeouts, so slow statements are cancelled
+ * instead of holding a thread and a pooled connection indefinitely.
+ */
+public class DeadlineAwareTransactionManager extends JpaTransactionManager {
+
+    public DeadlineAwareTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        // Do not even borrow a connection once the budget is spent
+        if (RequestDeadline.isActive()) {
+            RequestDeadline.checkNotExpired();
+        }
+        super.doBegin(transaction, definition);
+    }
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        int configured = super.determineTimeout(definition);
+        if (!RequestDeadline.isActive()) return configured;
+
+        int remainingSeconds = (int) Math.max(1, (RequestDeadline.remainingMillis() + 999) / 1000);
+        if (configured == TransactionDefinition.TIMEOUT_DEFAULT) return remainingSeconds;
+        return Math.min(configured, remainingSeconds);
+    }
+}
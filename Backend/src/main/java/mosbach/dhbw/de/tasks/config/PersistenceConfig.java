@@ -0,0 +1,16 @@
+package mosbach.dhbw.de.tasks.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class PersistenceConfig {
+
+    // Replaces Spring Boot's default JpaTransactionManager (it backs off when one is defined)
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new DeadlineAwareTransactionManager(entityManagerFactory);
+    }
+}
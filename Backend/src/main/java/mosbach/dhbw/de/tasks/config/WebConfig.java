@@ -0,0 +1,71 @@
+package mosbach.dhbw.de.tasks.config;
+
+import mosbach.dhbw.de.tasks.security.CurrentUserArgumentResolver;
+import mosbach.dhbw.de.tasks.security.TokenAuthenticator;
+import mosbach.dhbw.de.tasks.web.AdaptiveConcurrencyLimiter;
+import mosbach.dhbw.de.tasks.web.ConcurrencyLimitInterceptor;
+import mosbach.dhbw.de.tasks.web.DeadlineInterceptor;
+import mosbach.dhbw.de.tasks.web.RateLimitInterceptor;
+import mosbach.dhbw.de.tasks.web.RateLimiters;
+import mosbach.dhbw.de.tasks.web.RouteDeadlines;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+import java.util.Set;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CurrentUserArgumentResolver currentUserArgumentResolver;
+    private final TokenAuthenticator tokenAuthenticator;
+    private final RateLimiters rateLimiters;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final RouteDeadlines routeDeadlines;
+
+    public WebConfig(
+            CurrentUserArgumentResolver currentUserArgumentResolver,
+            TokenAuthenticator tokenAuthenticator,
+            RateLimiters rateLimiters,
+            AdaptiveConcurrencyLimiter concurrencyLimiter,
+            RouteDeadlines routeDeadlines
+    ) {
+        this.currentUserArgumentResolver = currentUserArgumentResolver;
+        this.tokenAuthenticator = tokenAuthenticator;
+        this.rateLimiters = rateLimiters;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.routeDeadlines = routeDeadlines;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DeadlineInterceptor(routeDeadlines))
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/admin/**");
+        if (rateLimiters.isEnabled()) {
+            registry.addInterceptor(new RateLimitInterceptor(rateLimiters.login(), Set.of("POST"), false, tokenAuthenticator))
+                    .addPathPatterns("/api/login");
+            registry.addInterceptor(new RateLimitInterceptor(rateLimiters.register(), Set.of("POST"), false, tokenAuthenticator))
+                    .addPathPatterns("/api/register");
+            registry.addInterceptor(new RateLimitInterceptor(rateLimiters.shared(), Set.of("GET"), false, tokenAuthenticator))
+                    .addPathPatterns("/api/shared-recipes", "/api/shared-recipes/*");
+            registry.addInterceptor(new RateLimitInterceptor(rateLimiters.user(), Set.of(), true, tokenAuthenticator))
+                    .addPathPatterns("/api/**")
+                    .excludePathPatterns("/api/login", "/api/register", "/api/shared-recipes", "/api/shared-recipes/*",
+                            "/api/health", "/api/admin/**");
+        }
+        // After rate limiting, so throttled requests never take a concurrency permit
+        if (concurrencyLimiter.isEnabled()) {
+            registry.addInterceptor(new ConcurrencyLimitInterceptor(concurrencyLimiter))
+                    .addPathPatterns("/api/**")
+                    .excludePathPatterns("/api/health", "/api/admin/**");
+        }
+    }
+}
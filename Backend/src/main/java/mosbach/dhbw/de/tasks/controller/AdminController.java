@@ -0,0 +1,152 @@
+package mosbach.dhbw.de.tasks.controller;
+
+import mosbach.dhbw.de.tasks.data.impl.IngredientCatalog;
+import mosbach.dhbw.de.tasks.data.impl.NutritionBackfillManager;
+import mosbach.dhbw.de.tasks.data.impl.UserManager;
+import mosbach.dhbw.de.tasks.nutrition.LocalNutritionProvider;
+import mosbach.dhbw.de.tasks.nutrition.NutritionCache;
+import mosbach.dhbw.de.tasks.nutrition.NutritionClient;
+import mosbach.dhbw.de.tasks.nutrition.NutritionEnrichmentWorker;
+import mosbach.dhbw.de.tasks.nutrition.NutritionEventHub;
+import mosbach.dhbw.de.tasks.nutrition.NutritionScheduler;
+import mosbach.dhbw.de.tasks.security.JwtService;
+import mosbach.dhbw.de.tasks.service.IdempotencyService;
+import mosbach.dhbw.de.tasks.security.PasswordHasher;
+import mosbach.dhbw.de.tasks.security.TokenVersionRegistry;
+import mosbach.dhbw.de.tasks.web.AdaptiveConcurrencyLimiter;
+import mosbach.dhbw.de.tasks.web.RateLimiters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Operational endpoints. Disabled unless mealy.admin.key is set;
+ * callers must send the key in the X-Admin-Key header.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final JwtService jwtService;
+    private final PasswordHasher passwordHasher;
+    private final UserManager userManager;
+    private final TokenVersionRegistry tokenVersions;
+    private final RateLimiters rateLimiters;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final IdempotencyService idempotencyService;
+    private final NutritionEnrichmentWorker nutritionWorker;
+    private final NutritionCache nutritionCache;
+    private final NutritionClient nutritionClient;
+    private final NutritionScheduler nutritionScheduler;
+    private final NutritionBackfillManager nutritionBackfill;
+    private final LocalNutritionProvider localNutrition;
+    private final NutritionEventHub nutritionEvents;
+    private final IngredientCatalog ingredientCatalog;
+    private final String adminKey;
+
+    public AdminController(
+            JwtService jwtService,
+            PasswordHasher passwordHasher,
+            UserManager userManager,
+            TokenVersionRegistry tokenVersions,
+            RateLimiters rateLimiters,
+            AdaptiveConcurrencyLimiter concurrencyLimiter,
+            IdempotencyService idempotencyService,
+            NutritionEnrichmentWorker nutritionWorker,
+            NutritionCache nutritionCache,
+            NutritionClient nutritionClient,
+            NutritionScheduler nutritionScheduler,
+            NutritionBackfillManager nutritionBackfill,
+            LocalNutritionProvider localNutrition,
+            NutritionEventHub nutritionEvents,
+            IngredientCatalog ingredientCatalog,
+            @Value("${mealy.admin.key:}") String adminKey
+    ) {
+        this.jwtService = jwtService;
+        this.passwordHasher = passwordHasher;
+        this.userManager = userManager;
+        this.tokenVersions = tokenVersions;
+        this.rateLimiters = rateLimiters;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.idempotencyService = idempotencyService;
+        this.nutritionWorker = nutritionWorker;
+        this.nutritionCache = nutritionCache;
+        this.nutritionClient = nutritionClient;
+        this.nutritionScheduler = nutritionScheduler;
+        this.nutritionBackfill = nutritionBackfill;
+        this.localNutrition = localNutrition;
+        this.nutritionEvents = nutritionEvents;
+        this.ingredientCatalog = ingredientCatalog;
+        this.adminKey = adminKey;
+    }
+
+    @GetMapping("/metrics")
+    public ResponseEntity<?> metrics(@RequestHeader(value = "X-Admin-Key", required = false) String key) {
+        if (!isAdmin(key)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("reason", "Forbidden"));
+        }
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("jwtCache", jwtService.getCacheStats());
+        out.put("principalCache", userManager.getPrincipalCacheStats());
+        out.put("tokenVersions", tokenVersions.getStats());
+        out.put("bcrypt", passwordHasher.getStats());
+        out.put("rateLimits", rateLimiters.getStats());
+        out.put("concurrency", concurrencyLimiter.getStats());
+        out.put("idempotency", idempotencyService.getStats());
+        out.put("nutritionWorker", nutritionWorker.getStats());
+        out.put("nutritionCache", nutritionCache.getStats());
+        out.put("nutritionLocal", localNutrition.getStats());
+        out.put("nutritionApi", nutritionClient.getStats());
+        out.put("nutritionQuota", nutritionScheduler.getStats());
+        out.put("nutritionEvents", nutritionEvents.getStats());
+        out.put("ingredientCatalog", ingredientCatalog.getStats());
+        return ResponseEntity.ok(out);
+    }
+
+    @GetMapping("/backfill/nutrition")
+    public ResponseEntity<?> nutritionBackfillProgress(@RequestHeader(value = "X-Admin-Key", required = false) String key) {
+        if (!isAdmin(key)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("reason", "Forbidden"));
+        }
+        return ResponseEntity.ok(nutritionBackfill.progress());
+    }
+
+    // Resumes from the last checkpoint unless restart=true
+    @PostMapping("/backfill/nutrition/start")
+    public ResponseEntity<?> startNutritionBackfill(
+            @RequestHeader(value = "X-Admin-Key", required = false) String key,
+            @RequestParam(value = "restart", defaultValue = "false") boolean restart) {
+        if (!isAdmin(key)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("reason", "Forbidden"));
+        }
+        return ResponseEntity.ok(nutritionBackfill.start(restart));
+    }
+
+    @PostMapping("/backfill/nutrition/pause")
+    public ResponseEntity<?> pauseNutritionBackfill(@RequestHeader(value = "X-Admin-Key", required = false) String key) {
+        if (!isAdmin(key)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("reason", "Forbidden"));
+        }
+        return ResponseEntity.ok(nutritionBackfill.pause());
+    }
+
+    private boolean isAdmin(String key) {
+        if (adminKey == null || adminKey.isBlank() || key == null) return false;
+        return MessageDigest.isEqual(
+                adminKey.getBytes(StandardCharsets.UTF_8),
+                key.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+}
@@ -0,0 +1,41 @@
+package mosbach.dhbw.de.tasks.controller;
+
+import mosbach.dhbw.de.tasks.security.AuthenticationFailedException;
+import mosbach.dhbw.de.tasks.security.PasswordHasherBusyException;
+import mosbach.dhbw.de.tasks.web.DeadlineExceededException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * Maps cross-cutting exceptions to the {"reason": ...} error body used by all endpoints.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    // Same status as the former per-endpoint token checks
+    @ExceptionHandler(AuthenticationFailedException.class)
+    public ResponseEntity<?> handleAuthenticationFailed(AuthenticationFailedException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", e.getMessage()));
+    }
+
+    @ExceptionHandler(PasswordHasherBusyException.class)
+    public ResponseEntity<?> handlePasswordHasherBusy(PasswordHasherBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("reason", e.getMessage()));
+    }
+
+    // Request ran out of its deadline (before starting work, or a query was cancelled by its timeout)
+    @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class, TransactionTimedOutException.class})
+    public ResponseEntity<?> handleDeadlineExceeded(Exception e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(Map.of("reason", "Request took too long, please retry"));
+    }
+}
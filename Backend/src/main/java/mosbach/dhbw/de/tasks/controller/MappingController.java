@@ -4,13 +4,22 @@ import mosbach.dhbw.de.tasks.data.impl.*;
 import mosbach.dhbw.de.tasks.model.*;
 import mosbach.dhbw.de.tasks.data.basis.User;
 import mosbach.dhbw.de.tasks.persistence.entity.UserEntity;
+import jakarta.servlet.http.HttpServletRequest;
+import mosbach.dhbw.de.tasks.nutrition.NutritionEventHub;
+import mosbach.dhbw.de.tasks.security.CurrentUser;
+import mosbach.dhbw.de.tasks.security.TokenAuthenticator;
 import mosbach.dhbw.de.tasks.service.EmailService;
+import mosbach.dhbw.de.tasks.service.IdempotencyService;
+import mosbach.dhbw.de.tasks.web.LoadPriority;
+import mosbach.dhbw.de.tasks.web.PriorityClass;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -26,24 +35,25 @@ public class MappingController {
     private final UserManager userManger;
     private final MealManager mealManager;
     private final EmailService emailService;
+    private final IdempotencyService idempotencyService;
+    private final NutritionEventHub nutritionEvents;
+    private final TokenAuthenticator tokenAuthenticator;
+    private final RecipeImportManager recipeImportManager;
 
     MealPlanConverter mealPlanConverter = MealPlanConverter.getMealPlanConverter();
 
-    public MappingController(RecipeManager recipeManager, UserManager userManger, MealManager mealManager, EmailService emailService) {
+    public MappingController(RecipeManager recipeManager, UserManager userManger, MealManager mealManager,
+                             EmailService emailService, IdempotencyService idempotencyService,
+                             NutritionEventHub nutritionEvents, TokenAuthenticator tokenAuthenticator,
+                             RecipeImportManager recipeImportManager) {
         this.recipeManager = recipeManager;
         this.userManger = userManger;
         this.mealManager = mealManager;
         this.emailService = emailService;
-    }
-
-    private String extractToken(String tokenHeader, String authorizationHeader) {
-        if (tokenHeader != null && !tokenHeader.isBlank()) return tokenHeader;
-        if (authorizationHeader == null || authorizationHeader.isBlank()) return null;
-        String a = authorizationHeader.trim();
-        if (a.regionMatches(true, 0, "Bearer ", 0, 7)) {
-            return a.substring(7).trim();
-        }
-        return a;
+        this.idempotencyService = idempotencyService;
+        this.nutritionEvents = nutritionEvents;
+        this.tokenAuthenticator = tokenAuthenticator;
+        this.recipeImportManager = recipeImportManager;
     }
 
     @PostMapping(
@@ -92,26 +102,9 @@ public class MappingController {
     }
 
     @GetMapping("/user")
-    public ResponseEntity<?> getUser(
-            @RequestHeader(value = "token", required = false) String tokenHeader,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
-
-        String token = extractToken(tokenHeader, authorizationHeader);
-        if (token == null || token.isBlank()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Missing token"));
-        }
-
-        TokenConv t = new TokenConv(token);
-        if (!userManger.checkToken(t)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Wrong token"));
-        }
-
-        UserConv u = userManger.TokenToUser(token);
-        if (u == null) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "User not found"));
-        }
-        // Do not return password hash
-        u.setPassword(null);
+    @LoadPriority(PriorityClass.CRITICAL)
+    public ResponseEntity<?> getUser(@CurrentUser UserConv u) {
+        // Principal never carries the password hash
         return ResponseEntity.ok(u);
     }
 
@@ -120,25 +113,9 @@ public class MappingController {
             consumes = {MediaType.APPLICATION_JSON_VALUE}
     )
     public ResponseEntity<?> updateUser(
-            @RequestHeader(value = "token", required = false) String tokenHeader,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @CurrentUser UserConv owner,
             @RequestBody UserConv update) {
 
-        String token = extractToken(tokenHeader, authorizationHeader);
-        if (token == null || token.isBlank()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Missing token"));
-        }
-
-        TokenConv t = new TokenConv(token);
-        if (!userManger.checkToken(t)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Wrong token"));
-        }
-
-        UserConv owner = userManger.TokenToUser(token);
-        if (owner == null) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "User not found"));
-        }
-
         try {
             UserEntity updated = userManger.updateUserForTokenOwner(owner, update);
             if (updated == null) {
@@ -154,25 +131,16 @@ public class MappingController {
         }
     }
 
-    @DeleteMapping("/user")
-    public ResponseEntity<?> deleteUser(
-            @RequestHeader(value = "token", required = false) String tokenHeader,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
-
-        String token = extractToken(tokenHeader, authorizationHeader);
-        if (token == null || token.isBlank()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Missing token"));
-        }
-
-        TokenConv t = new TokenConv(token);
-        if (!userManger.checkToken(t)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Wrong token"));
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(@CurrentUser UserConv owner) {
+        if (userManger.revokeAllTokens(owner)) {
+            return ResponseEntity.ok(Map.of("message", "All sessions logged out"));
         }
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "User not found"));
+    }
 
-        UserConv owner = userManger.TokenToUser(token);
-        if (owner == null || owner.getEmail() == null) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "User not found"));
-        }
+    @DeleteMapping("/user")
+    public ResponseEntity<?> deleteUser(@CurrentUser UserConv owner) {
 
         // Delete dependent data first (FK constraints)
         mealManager.deleteMealsByUserEmail(owner.getEmail());
@@ -190,62 +158,62 @@ public class MappingController {
             path = "/recipe",
             consumes = {MediaType.APPLICATION_JSON_VALUE}
     )
+    @LoadPriority(PriorityClass.SHEDDABLE)
     public ResponseEntity<?> saveRecipe(
-            @RequestHeader(value = "token", required = false) String tokenHeader,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @CurrentUser UserConv user,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody RecipeConv recipe) {
 
-        String token = extractToken(tokenHeader, authorizationHeader);
-        if (token == null || token.isBlank()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Missing token"));
-        }
+        // Retries with the same key get the original response instead of a duplicate recipe
+        return idempotencyService.execute(user.getEmail() + " POST /api/recipe", idempotencyKey, recipe, () -> {
+            try {
+                recipeManager.saveRecipe(recipe, user);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", e.getMessage()));
+            }
+            return ResponseEntity.ok("Recipe successfully created");
+        });
+    }
 
-        TokenConv t = new TokenConv(token);
-        if (!userManger.checkToken(t)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Wrong token"));
+    /**
+     * Bulk import: one recipe JSON object per line (NDJSON). The body is streamed and saved in chunks;
+     * the answer lists the lines that were skipped. Nutrition is computed afterwards by the BULK worker.
+     */
+    @PostMapping(path = "/recipes/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @LoadPriority(value = PriorityClass.SHEDDABLE, sampleLatency = false)
+    public ResponseEntity<?> importRecipes(HttpServletRequest request, @CurrentUser UserConv user) {
+        try {
+            return ResponseEntity.ok(recipeImportManager.importRecipes(request.getInputStream(), user));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Import body could not be read"));
         }
-
-        recipeManager.saveRecipe(recipe, userManger.TokenToUser(token));
-        return ResponseEntity.ok("Recipe successfully created");
     }
 
     @GetMapping("/collection")
+    @LoadPriority(PriorityClass.CRITICAL)
     public ResponseEntity<?> getRecepes(
-            @RequestHeader(value = "token", required = false) String tokenHeader,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
-
-        String token = extractToken(tokenHeader, authorizationHeader);
-        if (token == null || token.isBlank()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Missing token"));
+            @RequestParam(value = "ingredient", required = false) String ingredient,
+            @CurrentUser UserConv user) {
+        if (ingredient != null && !ingredient.isBlank()) {
+            return ResponseEntity.ok(recipeManager.readRecipeNamesWithIngredient(user, ingredient));
         }
-        TokenConv t = new TokenConv(token);
-
-        if (userManger.checkToken(t)) {
-            return ResponseEntity.ok(recipeManager.readRecipeNames(userManger.TokenToUser(token)));
-        }
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Wrong Token"));
-
+        return ResponseEntity.ok(recipeManager.readRecipeNames(user));
     }
 
     @GetMapping("recipe/detail/{id}")
+    @LoadPriority(PriorityClass.CRITICAL)
     public ResponseEntity<?> getRecipeById(
             @PathVariable int id,
-            @RequestHeader(value = "token", required = false) String tokenHeader,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
+            @RequestParam(value = "servings", required = false) Integer servings,
+            @CurrentUser UserConv user) {
 
-        String token = extractToken(tokenHeader, authorizationHeader);
-        if (token == null || token.isBlank()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Missing token"));
-        }
-
-        TokenConv t = new TokenConv(token);
-
-        if (!userManger.checkToken(t)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Wrong Token"));
+        // Scaled server-side from the stored values, no nutrition lookup
+        LargeRecipeConv r;
+        try {
+            r = recipeManager.readRecipeDetailByIdForOwner(id, user, servings);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", e.getMessage()));
         }
-
-        UserConv user = userManger.TokenToUser(token);
-        LargeRecipeConv r = recipeManager.readRecipeDetailByIdForOwner(id, user);
         if (r == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("reason", "Recipe not found"));
         }
@@ -255,23 +223,7 @@ public class MappingController {
     @DeleteMapping("recipe/detail/{id}")
     public ResponseEntity<?> deleteRecipeById(
             @PathVariable long id,
-            @RequestHeader(value = "token", required = false) String tokenHeader,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
-
-        String token = extractToken(tokenHeader, authorizationHeader);
-        if (token == null || token.isBlank()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Missing token"));
-        }
-
-        TokenConv t = new TokenConv(token);
-        if (!userManger.checkToken(t)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Wrong Token"));
-        }
-
-        UserConv user = userManger.TokenToUser(token);
-        if (user == null || user.getEmail() == null) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "User not found"));
-        }
+            @CurrentUser UserConv user) {
 
         // Clear mealplan references first (FK)
         mealManager.deleteMealsByRecipe(user, id);
@@ -283,27 +235,115 @@ public class MappingController {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("reason", "Recipe not found"));
     }
 
+    // Fields missing in the body stay unchanged; nutrition is only recomputed if the ingredients changed
+    @PatchMapping(path = "recipe/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> patchRecipe(
+            @PathVariable long id,
+            @RequestBody RecipePatchConv patch,
+            @CurrentUser UserConv user) {
+        try {
+            return recipeOrNotFound(recipeManager.patchRecipe(id, patch, user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", e.getMessage()));
+        }
+    }
 
-    @GetMapping("/mealplan")
-    public ResponseEntity<?> getMeals(
-            @RequestHeader(value = "token", required = false) String tokenHeader,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
+    // Single-ingredient edits: totals are recomputed from the stored per-ingredient shares
+
+    @PostMapping(path = "recipe/{id}/ingredients", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> addIngredient(
+            @PathVariable long id,
+            @RequestBody IngredientConv ingredient,
+            @CurrentUser UserConv user) {
         try {
-            String token = extractToken(tokenHeader, authorizationHeader);
-            if (token == null || token.isBlank()) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Missing token"));
-            }
-            TokenConv t = new TokenConv(token);
+            return recipeOrNotFound(recipeManager.addIngredient(id, ingredient, user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", e.getMessage()));
+        }
+    }
 
-            if (!userManger.checkToken(t)) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Ungültiges Token"));
-            }
+    @PutMapping(path = "recipe/{id}/ingredients/{index}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> updateIngredient(
+            @PathVariable long id,
+            @PathVariable int index,
+            @RequestBody IngredientConv ingredient,
+            @CurrentUser UserConv user) {
+        try {
+            return recipeOrNotFound(recipeManager.updateIngredient(id, index, ingredient, user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("recipe/{id}/ingredients/{index}")
+    public ResponseEntity<?> removeIngredient(
+            @PathVariable long id,
+            @PathVariable int index,
+            @CurrentUser UserConv user) {
+        try {
+            return recipeOrNotFound(recipeManager.removeIngredient(id, index, user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", e.getMessage()));
+        }
+    }
+
+    private static ResponseEntity<?> recipeOrNotFound(LargeRecipeConv r) {
+        if (r == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("reason", "Recipe not found"));
+        }
+        return ResponseEntity.ok(r);
+    }
 
-            UserConv user = userManger.TokenToUser(token);
-            if (user == null) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Fehler: Benutzer nicht gefunden.");
+
+    // Short-lived, single-use ticket for opening the event stream below (EventSource cannot send headers)
+    @PostMapping("/events/nutrition/ticket")
+    public ResponseEntity<?> nutritionEventsTicket(@CurrentUser UserConv user) {
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-store")
+                .body(Map.of(
+                        "ticket", nutritionEvents.issueTicket(user.getEmail()),
+                        "expiresInSeconds", nutritionEvents.getTicketTtlSeconds()
+                ));
+    }
+
+    /**
+     * Server-Sent Events: "nutrition" events ({"recipeId", "nutritionStatus"}) once a recipe's nutrition
+     * is COMPLETE or FAILED, so the frontend does not have to poll the detail endpoint.
+     * Browsers pass a ticket from POST /events/nutrition/ticket as ?ticket=; other clients may use the token headers.
+     * The JWT itself is never accepted in the URL.
+     */
+    @GetMapping("/events/nutrition")
+    public ResponseEntity<?> nutritionEvents(
+            HttpServletRequest request,
+            @RequestParam(value = "ticket", required = false) String ticket) {
+
+        String email;
+        if (ticket != null) {
+            email = nutritionEvents.redeemTicket(ticket);
+            if (email == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(Map.of("reason", "Invalid or expired ticket"));
             }
+        } else {
+            email = tokenAuthenticator.authenticate(request).getEmail();
+        }
+        SseEmitter emitter = nutritionEvents.subscribe(email);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("reason", "Too many open event streams"));
+        }
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-store")
+                .header("X-Accel-Buffering", "no") // nginx: do not buffer the stream
+                .body(emitter);
+    }
 
+    @GetMapping("/mealplan")
+    @LoadPriority(PriorityClass.CRITICAL)
+    public ResponseEntity<?> getMeals(@CurrentUser UserConv user) {
+        try {
 //            List<Integer> RecipeIDS = recipeManager.readRecipeIDs(user);
 //            List<String> RecipeNames = recipeManager.readRecipeName(user);
 //            List<TimeConv> MealTimes = mealManager.readTime(user);
@@ -352,10 +392,13 @@ public class MappingController {
 //            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Ein unerwarteter Fehler ist aufgetreten.");
 //        }
 //    }
-            List<TimeConv> MealTimes = mealManager.readTime(user);
-            List<Integer> RecipeIDS = mealManager.readMealPlanRecipeIds(user);
+            // One query: times, ids and servings stay aligned even if the plan changes meanwhile
+            MealManager.MealPlanRows plan = mealManager.readMealPlan(user);
+            List<TimeConv> MealTimes = plan.times();
+            List<Integer> RecipeIDS = plan.recipeIds();
+            List<Integer> Servings = plan.servings();
             List<String> RecipeNames = recipeManager.readRecipeNamesByIds(RecipeIDS);
-            List<SendNutriConv> NutritionValues = recipeManager.readNutritionByIds(RecipeIDS);
+            List<SendNutriConv> NutritionValues = recipeManager.readNutritionByIds(RecipeIDS, Servings);
 
             // Protokollieren der Listenlängen
             Logger.getLogger(MealPlanConverter.class.getName()).log(Level.INFO, "RecipeNames size: " + RecipeNames.size());
@@ -367,7 +410,7 @@ public class MappingController {
             }
 
 
-            return ResponseEntity.ok(mealPlanConverter.convertToMealPlanJson(RecipeNames, MealTimes, NutritionValues));
+            return ResponseEntity.ok(mealPlanConverter.convertToMealPlanJson(RecipeNames, MealTimes, NutritionValues, Servings));
 
         } catch (Exception e) {
             Logger.getLogger(MealManager.class.getName()).log(Level.SEVERE, "Fehler in der /mealplan-Anfrage", e);
@@ -381,21 +424,16 @@ public class MappingController {
             consumes = {MediaType.APPLICATION_JSON_VALUE}
     )
     public ResponseEntity<?> RecipeToMealplan(
-            @RequestHeader(value = "token", required = false) String tokenHeader,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @CurrentUser UserConv user,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody MealplanConv recipe) {
 
-        String token = extractToken(tokenHeader, authorizationHeader);
-        if (token == null || token.isBlank()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Missing token"));
-        }
-        TokenConv t = new TokenConv(token);
-        if (!userManger.checkToken(t)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Wrong Token"));
-        }
+        return idempotencyService.execute(user.getEmail() + " POST /api/mealplan", idempotencyKey, recipe,
+                () -> saveMealplanEntry(user, recipe));
+    }
 
+    private ResponseEntity<?> saveMealplanEntry(UserConv user, MealplanConv recipe) {
         try {
-            UserConv user = userManger.TokenToUser(token);
             mealManager.saveMeals(recipe, user);
 
             // Best-effort admin mail notification (disabled by default)
@@ -419,25 +457,9 @@ public class MappingController {
             consumes = {MediaType.APPLICATION_JSON_VALUE}
     )
     public ResponseEntity<?> deleteMealFromMealplan(
-            @RequestHeader(value = "token", required = false) String tokenHeader,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @CurrentUser UserConv user,
             @RequestBody Map<String, String> payload) {
 
-        String token = extractToken(tokenHeader, authorizationHeader);
-        if (token == null || token.isBlank()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Missing token"));
-        }
-
-        TokenConv t = new TokenConv(token);
-        if (!userManger.checkToken(t)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Wrong Token"));
-        }
-
-        UserConv user = userManger.TokenToUser(token);
-        if (user == null) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "User not found"));
-        }
-
         String day = payload != null ? payload.get("day") : null;
         String time = payload != null ? payload.get("time") : null;
 
@@ -456,8 +478,15 @@ public class MappingController {
     }
 
     @GetMapping("/shared-recipes/{id}")
-    public ResponseEntity<?> getSharedRecipe(@PathVariable long id) {
-        LargeRecipeConv r = recipeManager.readSharedRecipeDetailById(id);
+    public ResponseEntity<?> getSharedRecipe(
+            @PathVariable long id,
+            @RequestParam(value = "servings", required = false) Integer servings) {
+        LargeRecipeConv r;
+        try {
+            r = recipeManager.readSharedRecipeDetailById(id, servings);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", e.getMessage()));
+        }
         if (r == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("reason", "Shared recipe not found"));
         }
@@ -467,18 +496,7 @@ public class MappingController {
     @PostMapping("/recipe/{id}/share")
     public ResponseEntity<?> shareRecipe(
             @PathVariable long id,
-            @RequestHeader(value = "token", required = false) String tokenHeader,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
-        String token = extractToken(tokenHeader, authorizationHeader);
-        if (token == null || token.isBlank()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Missing token"));
-        }
-
-        TokenConv t = new TokenConv(token);
-        if (!userManger.checkToken(t)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Wrong Token"));
-        }
-        UserConv user = userManger.TokenToUser(token);
+            @CurrentUser UserConv user) {
         boolean ok = recipeManager.setRecipeShared(id, user, true);
         if (!ok) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("reason", "Recipe not found"));
@@ -489,18 +507,7 @@ public class MappingController {
     @DeleteMapping("/recipe/{id}/share")
     public ResponseEntity<?> unshareRecipe(
             @PathVariable long id,
-            @RequestHeader(value = "token", required = false) String tokenHeader,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
-        String token = extractToken(tokenHeader, authorizationHeader);
-        if (token == null || token.isBlank()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Missing token"));
-        }
-
-        TokenConv t = new TokenConv(token);
-        if (!userManger.checkToken(t)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Wrong Token"));
-        }
-        UserConv user = userManger.TokenToUser(token);
+            @CurrentUser UserConv user) {
         boolean ok = recipeManager.setRecipeShared(id, user, false);
         if (!ok) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("reason", "Recipe not found"));
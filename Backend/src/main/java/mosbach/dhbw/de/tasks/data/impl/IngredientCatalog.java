@@ -0,0 +1,98 @@
+package mosbach.dhbw.de.tasks.data.impl;
+
+import mosbach.dhbw.de.tasks.cache.ExpiringCache;
+import mosbach.dhbw.de.tasks.persistence.entity.IngredientEntity;
+import mosbach.dhbw.de.tasks.persistence.repo.IngredientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maps ingredient names to rows of the ingredient catalog. Ids never change, so the name -> id map is cached;
+ * a hit costs no query (the recipe row only needs a reference, not the loaded entity).
+ */
+@Service
+public class IngredientCatalog {
+
+    private final IngredientRepository ingredientRepo;
+    private final ExpiringCache<String, Long> idsByKey;
+    private final Duration ttl;
+
+    private final LongAdder created = new LongAdder();
+
+    public IngredientCatalog(
+            IngredientRepository ingredientRepo,
+            @Value("${mealy.ingredients.catalog.cacheMaxEntries:50000}") int cacheMaxEntries,
+            @Value("${mealy.ingredients.catalog.cacheTtlMinutes:1440}") long cacheTtlMinutes
+    ) {
+        this.ingredientRepo = ingredientRepo;
+        this.idsByKey = new ExpiringCache<>(cacheMaxEntries);
+        this.ttl = Duration.ofMinutes(cacheTtlMinutes);
+    }
+
+    public static String keyOf(String name) {
+        return name == null ? "" : name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Catalog entry for the name, created if new. Joins the caller's transaction;
+     * ids of rows created here are only cached once that transaction has committed.
+     */
+    @Transactional
+    public IngredientEntity resolve(String name) {
+        String key = keyOf(name);
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("Ingredient name must not be blank");
+        }
+        Long id = idsByKey.get(key);
+        if (id != null) return ingredientRepo.getReferenceById(id);
+
+        id = ingredientRepo.findIdByNameKey(key).orElse(null);
+        if (id != null) {
+            idsByKey.put(key, id, ttl);
+            return ingredientRepo.getReferenceById(id);
+        }
+
+        if (ingredientRepo.insertIfAbsent(name.trim(), key) > 0) created.increment();
+        long newId = ingredientRepo.findIdByNameKey(key).orElseThrow();
+        afterCommit(() -> idsByKey.put(key, newId, ttl));
+        return ingredientRepo.getReferenceById(newId);
+    }
+
+    // Id of an existing entry, null if no recipe uses the name
+    @Transactional(readOnly = true)
+    public Long findId(String name) {
+        String key = keyOf(name);
+        Long id = idsByKey.get(key);
+        if (id != null) return id;
+        id = ingredientRepo.findIdByNameKey(key).orElse(null);
+        if (id != null) idsByKey.put(key, id, ttl);
+        return id;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> out = new java.util.LinkedHashMap<>(idsByKey.stats());
+        out.put("created", created.sum());
+        return out;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
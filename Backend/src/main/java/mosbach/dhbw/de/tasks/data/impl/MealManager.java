@@ -36,13 +36,15 @@ public class MealManager {
         List<MealplanConv> out = new ArrayList<>();
         for (MealEntryEntity e : mealRepo.findAll()) {
             String recipeId = e.getRecipe() != null ? String.valueOf(e.getRecipe().getId()) : null;
-            out.add(new MealplanConv(
+            MealplanConv conv = new MealplanConv(
                     Math.toIntExact(e.getId()),
                     e.getOwner().getEmail(),
                     e.getDay(),
                     e.getTime(),
                     recipeId
-            ));
+            );
+            conv.setServings(e.getServings());
+            out.add(conv);
         }
         return out;
     }
@@ -74,6 +76,7 @@ public class MealManager {
         }
 
         entry.setRecipe(recipe);
+        entry.setServings(meal.getServings() != null ? RecipeManager.requireServings(meal.getServings()) : null);
 
         MealEntryEntity saved = mealRepo.save(entry);
 
@@ -101,6 +104,25 @@ public class MealManager {
         return ids;
     }
 
+    /**
+     * Times, recipe ids and servings of the user's meal plan, index-aligned because they come from one query.
+     * recipeIds/servings may contain null (no recipe / the recipe's own servings).
+     */
+    public record MealPlanRows(List<TimeConv> times, List<Integer> recipeIds, List<Integer> servings) { }
+
+    @Transactional(readOnly = true)
+    public MealPlanRows readMealPlan(UserConv user) {
+        List<TimeConv> times = new ArrayList<>();
+        List<Integer> recipeIds = new ArrayList<>();
+        List<Integer> servings = new ArrayList<>();
+        for (MealEntryEntity e : mealRepo.findByOwner_EmailOrderByIdAsc(user.getEmail())) {
+            times.add(new TimeConv(e.getDay(), e.getTime()));
+            recipeIds.add(e.getRecipe() != null ? Math.toIntExact(e.getRecipe().getId()) : null);
+            servings.add(e.getServings());
+        }
+        return new MealPlanRows(times, recipeIds, servings);
+    }
+
     @Transactional
     public boolean deleteMealSlot(UserConv user, String day, String time) {
         if (user == null || user.getEmail() == null) return false;
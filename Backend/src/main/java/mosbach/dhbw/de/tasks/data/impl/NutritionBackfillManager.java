@@ -0,0 +1,122 @@
+package mosbach.dhbw.de.tasks.data.impl;
+
+import mosbach.dhbw.de.tasks.persistence.entity.BackfillCheckpointEntity;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionLane;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionStatus;
+import mosbach.dhbw.de.tasks.persistence.repo.BackfillCheckpointRepository;
+import mosbach.dhbw.de.tasks.persistence.repo.RecipeRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backfill for recipes without nutrition values (saved while the API key was blank or the API failed).
+ * Walks the recipe table in keyset order and hands each chunk to the nutrition outbox as BULK jobs;
+ * the chunk and its checkpoint commit together, so a restart resumes after the last committed chunk.
+ */
+@Service
+public class NutritionBackfillManager {
+
+    public static final String JOB_NAME = "nutrition-backfill";
+
+    private final BackfillCheckpointRepository checkpointRepo;
+    private final RecipeRepository recipeRepo;
+    private final NutritionJobManager nutritionJobs;
+
+    public NutritionBackfillManager(BackfillCheckpointRepository checkpointRepo, RecipeRepository recipeRepo,
+                                    NutritionJobManager nutritionJobs) {
+        this.checkpointRepo = checkpointRepo;
+        this.recipeRepo = recipeRepo;
+        this.nutritionJobs = nutritionJobs;
+    }
+
+    // Resumes from the checkpoint; restart (or a finished run) starts again from the first recipe
+    @Transactional
+    public Map<String, Object> start(boolean restart) {
+        BackfillCheckpointEntity c = checkpointRepo.findById(JOB_NAME).orElseGet(() -> {
+            BackfillCheckpointEntity fresh = new BackfillCheckpointEntity();
+            fresh.setName(JOB_NAME);
+            return fresh;
+        });
+        if (restart || c.getStatus() == null || BackfillCheckpointEntity.DONE.equals(c.getStatus())) {
+            c.setLastId(0);
+            c.setProcessed(0);
+            c.setStartedAt(Instant.now());
+        }
+        c.setStatus(BackfillCheckpointEntity.RUNNING);
+        c.setUpdatedAt(Instant.now());
+        checkpointRepo.save(c);
+        return toProgress(c);
+    }
+
+    @Transactional
+    public Map<String, Object> pause() {
+        BackfillCheckpointEntity c = checkpointRepo.findById(JOB_NAME).orElse(null);
+        if (c == null) return progress();
+        if (BackfillCheckpointEntity.RUNNING.equals(c.getStatus())) {
+            c.setStatus(BackfillCheckpointEntity.PAUSED);
+            c.setUpdatedAt(Instant.now());
+        }
+        return toProgress(c);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isRunning() {
+        return checkpointRepo.findById(JOB_NAME)
+                .map(c -> BackfillCheckpointEntity.RUNNING.equals(c.getStatus()))
+                .orElse(false);
+    }
+
+    /**
+     * Enqueues the next chunk and moves the checkpoint past it, in one transaction.
+     * Returns the number of recipes enqueued; 0 once the table is exhausted (status DONE).
+     */
+    @Transactional
+    public int runChunk(int chunkSize) {
+        BackfillCheckpointEntity c = checkpointRepo.findById(JOB_NAME).orElse(null);
+        if (c == null || !BackfillCheckpointEntity.RUNNING.equals(c.getStatus())) return 0;
+
+        List<Long> ids = recipeRepo.findIdsMissingNutrition(c.getLastId(), NutritionStatus.PENDING, Pageable.ofSize(chunkSize));
+        if (ids.isEmpty()) {
+            c.setStatus(BackfillCheckpointEntity.DONE);
+            c.setUpdatedAt(Instant.now());
+            return 0;
+        }
+
+        recipeRepo.updateNutritionStatus(ids, NutritionStatus.PENDING);
+        for (Long id : ids) {
+            nutritionJobs.enqueue(id, NutritionLane.BULK);
+        }
+        c.setLastId(ids.get(ids.size() - 1));
+        c.setProcessed(c.getProcessed() + ids.size());
+        c.setUpdatedAt(Instant.now());
+        return ids.size();
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> progress() {
+        return checkpointRepo.findById(JOB_NAME).map(this::toProgress).orElseGet(() -> {
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("status", "NEVER_STARTED");
+            out.put("missingNutrition", recipeRepo.countMissingNutrition(NutritionStatus.PENDING));
+            return out;
+        });
+    }
+
+    private Map<String, Object> toProgress(BackfillCheckpointEntity c) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("status", c.getStatus());
+        out.put("lastId", c.getLastId());
+        out.put("enqueued", c.getProcessed());
+        out.put("missingNutrition", recipeRepo.countMissingNutrition(NutritionStatus.PENDING));
+        out.put("queuedBulk", nutritionJobs.countQueued(NutritionLane.BULK));
+        out.put("startedAt", c.getStartedAt() != null ? c.getStartedAt().toString() : null);
+        out.put("updatedAt", c.getUpdatedAt() != null ? c.getUpdatedAt().toString() : null);
+        return out;
+    }
+}
@@ -0,0 +1,222 @@
+package mosbach.dhbw.de.tasks.data.impl;
+
+import mosbach.dhbw.de.tasks.model.NutritionConv;
+import mosbach.dhbw.de.tasks.persistence.entity.IngredientValue;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionJobEntity;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionLane;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionStatus;
+import mosbach.dhbw.de.tasks.persistence.entity.RecipeEntity;
+import mosbach.dhbw.de.tasks.persistence.repo.NutritionJobRepository;
+import mosbach.dhbw.de.tasks.persistence.repo.RecipeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Transactional side of the nutrition outbox. Every method is a short transaction;
+ * the HTTP call to the nutrition API happens between claim() and complete()/retryOrFail(),
+ * without a DB connection held.
+ */
+@Service
+public class NutritionJobManager {
+
+    public record ClaimedJob(long jobId, long recipeId, String ownerEmail, NutritionLane lane, int attempts, int revision,
+                             List<IngredientValue> ingredients) { }
+
+    private final NutritionJobRepository jobRepo;
+    private final RecipeRepository recipeRepo;
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public NutritionJobManager(
+            NutritionJobRepository jobRepo,
+            RecipeRepository recipeRepo,
+            @Value("${mealy.nutrition.worker.maxAttempts:6}") int maxAttempts,
+            @Value("${mealy.nutrition.worker.initialBackoffSeconds:30}") long initialBackoffSeconds,
+            @Value("${mealy.nutrition.worker.maxBackoffSeconds:3600}") long maxBackoffSeconds
+    ) {
+        this.jobRepo = jobRepo;
+        this.recipeRepo = recipeRepo;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = Duration.ofSeconds(Math.max(1, initialBackoffSeconds));
+        this.maxBackoff = Duration.ofSeconds(Math.max(initialBackoffSeconds, maxBackoffSeconds));
+    }
+
+    /**
+     * Joins the caller's transaction, so the job exists exactly when the recipe does.
+     * If the recipe already has a job, that job is due again right away and gets a new revision,
+     * so a lookup still running for the old ingredients is discarded.
+     */
+    @Transactional
+    public void enqueue(long recipeId, NutritionLane lane) {
+        Instant now = Instant.now();
+        NutritionJobEntity existing = jobRepo.findForUpdateByRecipeId(recipeId).orElse(null);
+        if (existing != null) {
+            existing.setRevision(existing.getRevision() + 1);
+            existing.setAttempts(0);
+            existing.setNextAttemptAt(now);
+            if (lane == NutritionLane.INTERACTIVE) existing.setLane(lane);
+            return;
+        }
+
+        NutritionJobEntity job = new NutritionJobEntity();
+        job.setRecipeId(recipeId);
+        job.setLane(lane);
+        job.setNextAttemptAt(now);
+        job.setCreatedAt(now);
+        jobRepo.save(job);
+    }
+
+    // For recipes created in the caller's transaction (import): no job can exist yet, so the jobs are inserted as one batch
+    @Transactional
+    public void enqueueNew(List<Long> recipeIds, NutritionLane lane) {
+        Instant now = Instant.now();
+        List<NutritionJobEntity> jobs = new ArrayList<>();
+        for (Long recipeId : recipeIds) {
+            NutritionJobEntity job = new NutritionJobEntity();
+            job.setRecipeId(recipeId);
+            job.setLane(lane);
+            job.setNextAttemptAt(now);
+            job.setCreatedAt(now);
+            jobs.add(job);
+        }
+        jobRepo.saveAll(jobs);
+    }
+
+    /**
+     * Leases up to {@code limit} due jobs of one lane. A worker that dies mid-job simply lets the lease run out.
+     * Jobs of recipes deleted in the meantime are dropped here.
+     */
+    @Transactional
+    public List<ClaimedJob> claim(NutritionLane lane, int limit, Duration lease) {
+        if (limit <= 0) return List.of();
+        Instant now = Instant.now();
+        List<ClaimedJob> claimed = new ArrayList<>();
+        for (NutritionJobEntity job : jobRepo.lockDueJobs(lane.name(), now, limit)) {
+            RecipeEntity recipe = recipeRepo.findById(job.getRecipeId()).orElse(null);
+            if (recipe == null) {
+                jobRepo.delete(job);
+                continue;
+            }
+            job.setLockedUntil(now.plus(lease));
+
+            // Detached copies: the worker reads them after this transaction has ended
+            List<IngredientValue> ingredients = new ArrayList<>();
+            for (IngredientValue v : recipe.getIngredients()) {
+                ingredients.add(v.copy());
+            }
+            claimed.add(new ClaimedJob(job.getId(), recipe.getId(), recipe.getOwner().getEmail(), job.getLane(),
+                    job.getAttempts(), job.getRevision(), ingredients));
+        }
+        return claimed;
+    }
+
+    /**
+     * Stores each ingredient's share ({@code shares} is parallel to the claimed ingredients)
+     * and sets the totals to their sum. Returns false if the ingredients changed since the claim;
+     * the job then stays queued for the new revision.
+     */
+    @Transactional
+    public boolean complete(ClaimedJob claimed, List<NutritionConv> shares) {
+        NutritionJobEntity job = lockCurrent(claimed);
+        if (job == null) return false;
+        jobRepo.delete(job);
+        RecipeEntity e = recipeRepo.findById(claimed.recipeId()).orElse(null);
+        if (e == null) return false;
+
+        List<IngredientValue> ingredients = e.getIngredients();
+        if (ingredients.size() != shares.size()) return false; // changed without enqueue(); should not happen
+        for (int i = 0; i < shares.size(); i++) {
+            ingredients.get(i).setNutrition(shares.get(i));
+        }
+        e.sumIngredientNutrition();
+        e.setNutritionStatus(NutritionStatus.COMPLETE);
+        return true;
+    }
+
+    /**
+     * Schedules the next attempt with exponential backoff (plus jitter), or marks the recipe FAILED
+     * once the attempts are used up. {@code permanent} skips the remaining attempts.
+     * Returns true if the job was given up.
+     */
+    @Transactional
+    public boolean retryOrFail(ClaimedJob claimed, String error, boolean permanent) {
+        NutritionJobEntity job = lockCurrent(claimed);
+        if (job == null) return false;
+
+        int attempts = job.getAttempts() + 1;
+        if (permanent || attempts >= maxAttempts) {
+            jobRepo.delete(job);
+            recipeRepo.findById(claimed.recipeId())
+                    .ifPresent(r -> r.setNutritionStatus(NutritionStatus.FAILED));
+            return true;
+        }
+
+        job.setAttempts(attempts);
+        job.setLastError(truncate(error, 500));
+        job.setLockedUntil(null);
+        job.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+        return false;
+    }
+
+    // The call was never attempted (circuit open, bulkhead full): try again later without using up an attempt
+    @Transactional
+    public void defer(ClaimedJob claimed, Duration delay) {
+        NutritionJobEntity job = lockCurrent(claimed);
+        if (job == null) return;
+        job.setLockedUntil(null);
+        job.setNextAttemptAt(Instant.now().plus(delay));
+    }
+
+    // The claimed job if it still has the claimed revision; a newer revision only gets its lease released
+    private NutritionJobEntity lockCurrent(ClaimedJob claimed) {
+        NutritionJobEntity job = jobRepo.findForUpdateById(claimed.jobId()).orElse(null);
+        if (job == null) return null;
+        if (job.getRevision() != claimed.revision()) {
+            job.setLockedUntil(null);
+            return null;
+        }
+        return job;
+    }
+
+    @Transactional
+    public void cancel(long recipeId) {
+        jobRepo.deleteByRecipeId(recipeId);
+    }
+
+    @Transactional(readOnly = true)
+    public long countDue() {
+        return jobRepo.countByNextAttemptAtLessThanEqual(Instant.now());
+    }
+
+    @Transactional(readOnly = true)
+    public long countQueued() {
+        return jobRepo.count();
+    }
+
+    @Transactional(readOnly = true)
+    public long countQueued(NutritionLane lane) {
+        return jobRepo.countByLane(lane);
+    }
+
+    private Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis();
+        long millis = attempts >= 31 ? maxBackoff.toMillis()
+                : Math.min(maxBackoff.toMillis(), base * (1L << (attempts - 1)));
+        // up to +25% jitter so jobs that failed together do not retry together
+        return Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(millis / 4 + 1));
+    }
+
+    private static String truncate(String s, int max) {
+        if (s == null) return null;
+        return s.length() <= max ? s : s.substring(0, max);
+    }
+}
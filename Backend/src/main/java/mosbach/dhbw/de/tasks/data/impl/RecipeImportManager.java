@@ -0,0 +1,212 @@
+package mosbach.dhbw.de.tasks.data.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mosbach.dhbw.de.tasks.model.RecipeConv;
+import mosbach.dhbw.de.tasks.model.UserConv;
+import mosbach.dhbw.de.tasks.web.DeadlineExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bulk import of recipes from NDJSON (one RecipeConv per line). The body is read as a stream and saved in chunks
+ * of chunkSize recipes, each chunk its own transaction, so memory stays flat and a failure only costs one chunk.
+ * Lines are buffered up to maxLineChars only; longer lines are skipped unread.
+ * Invalid lines are skipped and reported with their line number; nutrition is filled in later by the BULK worker.
+ * If the request deadline runs out, the import stops after the committed chunks and reports where it stopped.
+ */
+@Service
+public class RecipeImportManager {
+
+    private static final Logger LOG = Logger.getLogger(RecipeImportManager.class.getName());
+
+    private final RecipeManager recipeManager;
+    private final ObjectMapper objectMapper;
+
+    private final int chunkSize;
+    private final int maxRecipes;
+    private final int maxErrors;
+    private final int maxLineChars;
+
+    public RecipeImportManager(
+            RecipeManager recipeManager,
+            ObjectMapper objectMapper,
+            @Value("${mealy.import.chunkSize:500}") int chunkSize,
+            @Value("${mealy.import.maxRecipes:10000}") int maxRecipes,
+            @Value("${mealy.import.maxErrors:100}") int maxErrors,
+            @Value("${mealy.import.maxLineChars:100000}") int maxLineChars
+    ) {
+        this.recipeManager = recipeManager;
+        this.objectMapper = objectMapper;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxRecipes = Math.max(1, maxRecipes);
+        this.maxErrors = Math.max(0, maxErrors);
+        this.maxLineChars = Math.max(1, maxLineChars);
+    }
+
+    /**
+     * Returns {"imported", "failed", "errors": [{"line", "reason"}]}; errors beyond maxErrors are only counted.
+     * Chunks committed before a read error stay imported. If the import stopped early, "stopped" says why;
+     * the lines after the last reported one were not read.
+     */
+    public Map<String, Object> importRecipes(InputStream body, UserConv user) throws IOException {
+        Result result = new Result();
+        List<RecipeConv> chunk = new ArrayList<>();
+        List<Integer> chunkLines = new ArrayList<>();
+
+        LineReader reader = new LineReader(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)), maxLineChars);
+        int lineNo = 0;
+        int accepted = 0;
+        String line;
+        while ((line = reader.next()) != null) {
+            lineNo++;
+            if (!reader.tooLong && line.isBlank()) continue;
+            if (accepted >= maxRecipes) {
+                result.error(lineNo, "Import limit of " + maxRecipes + " recipes reached; remaining lines were not read");
+                break;
+            }
+            if (reader.tooLong) {
+                result.error(lineNo, "Line longer than " + maxLineChars + " characters");
+                continue;
+            }
+
+            RecipeConv recipe = parse(lineNo, line, result);
+            if (recipe == null) continue;
+            accepted++;
+            chunk.add(recipe);
+            chunkLines.add(lineNo);
+            if (chunk.size() >= chunkSize) {
+                boolean more = saveChunk(chunk, chunkLines, user, result);
+                chunk.clear();
+                chunkLines.clear();
+                if (!more) break;
+            }
+        }
+        if (!chunk.isEmpty()) saveChunk(chunk, chunkLines, user, result);
+
+        LOG.info("Recipe import: " + result.imported + " imported, " + result.failed + " failed"
+                + (result.stopped != null ? ", stopped: " + result.stopped : ""));
+        return result.toMap();
+    }
+
+    // null (and the error recorded) if the line is not a valid recipe
+    private RecipeConv parse(int lineNo, String line, Result result) {
+        try {
+            RecipeConv recipe = objectMapper.readValue(line, RecipeConv.class);
+            if (recipe == null) {
+                result.error(lineNo, "Line is not a recipe object");
+                return null;
+            }
+            RecipeManager.validate(recipe);
+            return recipe;
+        } catch (JsonProcessingException e) {
+            result.error(lineNo, "Invalid JSON: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            result.error(lineNo, e.getMessage());
+        }
+        return null;
+    }
+
+    // false if the import has to stop (request deadline reached); the chunk's lines are then reported as not saved
+    private boolean saveChunk(List<RecipeConv> chunk, List<Integer> lines, UserConv user, Result result) {
+        try {
+            result.imported += recipeManager.importChunk(chunk, user.getEmail()).size();
+            return true;
+        } catch (DeadlineExceededException | TransactionTimedOutException | QueryTimeoutException e) {
+            // Earlier chunks are committed: answer with what was done instead of a 504 the client cannot reconcile
+            LOG.log(Level.WARNING, "Recipe import stopped at the request deadline", e);
+            for (Integer line : lines) {
+                result.error(line, "Not saved: the import ran out of time");
+            }
+            result.stopped = "Request deadline reached after line " + lines.get(lines.size() - 1)
+                    + "; later lines were not read";
+            return false;
+        } catch (DataAccessException e) {
+            // The chunk's transaction was rolled back; earlier chunks stay committed
+            LOG.log(Level.WARNING, "Recipe import chunk failed", e);
+            for (Integer line : lines) {
+                result.error(line, "Not saved: the chunk containing this line failed");
+            }
+            return true;
+        }
+    }
+
+    private final class Result {
+        private int imported;
+        private int failed;
+        private String stopped;
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+
+        void error(int line, String reason) {
+            failed++;
+            if (errors.size() >= maxErrors) return;
+            Map<String, Object> e = new LinkedHashMap<>();
+            e.put("line", line);
+            e.put("reason", reason);
+            errors.add(e);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("imported", imported);
+            out.put("failed", failed);
+            out.put("errors", errors);
+            if (stopped != null) out.put("stopped", stopped);
+            return out;
+        }
+    }
+
+    /**
+     * Reads '\n'-terminated lines (a trailing '\r' is dropped) but keeps at most maxChars of each in memory.
+     * For a longer line, {@link #tooLong} is set and the rest of it is skipped up to the next newline.
+     */
+    private static final class LineReader {
+        private final Reader in;
+        private final int maxChars;
+        private final StringBuilder line = new StringBuilder();
+        private boolean tooLong;
+
+        LineReader(Reader in, int maxChars) {
+            this.in = in;
+            this.maxChars = maxChars;
+        }
+
+        // null at the end of the input
+        String next() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            int c;
+            boolean any = false;
+            while ((c = in.read()) != -1) {
+                any = true;
+                if (c == '\n') break;
+                if (line.length() < maxChars + 1) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+            }
+            if (!any) return null;
+            if (line.length() > 0 && line.charAt(line.length() - 1) == '\r') line.setLength(line.length() - 1);
+            if (line.length() > maxChars) tooLong = true;
+            if (tooLong) return "";
+            return line.toString();
+        }
+    }
+}
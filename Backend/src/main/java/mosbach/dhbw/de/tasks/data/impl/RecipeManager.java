@@ -1,112 +1,149 @@
 package mosbach.dhbw.de.tasks.data.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import mosbach.dhbw.de.tasks.model.*;
+import mosbach.dhbw.de.tasks.nutrition.IngredientResolver;
+import mosbach.dhbw.de.tasks.nutrition.LocalNutritionProvider;
+import mosbach.dhbw.de.tasks.nutrition.NutritionCache;
+import mosbach.dhbw.de.tasks.nutrition.NutritionClient;
+import mosbach.dhbw.de.tasks.nutrition.NutritionProvider;
+import mosbach.dhbw.de.tasks.nutrition.PieceWeights;
+import mosbach.dhbw.de.tasks.persistence.entity.IngredientUnit;
 import mosbach.dhbw.de.tasks.persistence.entity.IngredientValue;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionLane;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionStatus;
 import mosbach.dhbw.de.tasks.persistence.entity.RecipeEntity;
 import mosbach.dhbw.de.tasks.persistence.entity.UserEntity;
 import mosbach.dhbw.de.tasks.persistence.repo.RecipeRepository;
 import mosbach.dhbw.de.tasks.persistence.repo.UserRepository;
 import org.springframework.stereotype.Service;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class RecipeManager {
 
     private final RecipeRepository recipeRepo;
     private final UserRepository userRepo;
-
-    // Nutrition API settings (override via ENV/properties)
-    @Value("${mealy.nutrition.api.url:https://gustar-io-deutsche-rezepte.p.rapidapi.com/nutrition}")
-    private String nutritionApiUrl;
-
-    @Value("${mealy.nutrition.api.key:}")
-    private String nutritionApiKey;
-
-    @Value("${mealy.nutrition.api.host:gustar-io-deutsche-rezepte.p.rapidapi.com}")
-    private String nutritionApiHost;
-
-
-    public RecipeManager(RecipeRepository recipeRepo, UserRepository userRepo) {
+    private final NutritionJobManager nutritionJobs;
+    private final NutritionCache nutritionCache;
+    private final NutritionClient nutritionClient;
+    private final List<NutritionProvider> nutritionProviders;
+    private final IngredientResolver ingredientResolver;
+    private final LocalNutritionProvider localNutrition;
+    private final IngredientCatalog ingredientCatalog;
+
+    // Shares are looked up per 100 g and scaled, so every recipe with the ingredient can reuse the lookup
+    private static final List<Double> PER_100G = List.of(100.0);
+
+    private static final int MAX_SERVINGS = 100;
+
+    public RecipeManager(RecipeRepository recipeRepo, UserRepository userRepo,
+                         NutritionJobManager nutritionJobs, NutritionCache nutritionCache,
+                         NutritionClient nutritionClient,
+                         List<NutritionProvider> nutritionProviders, IngredientResolver ingredientResolver,
+                         LocalNutritionProvider localNutrition, IngredientCatalog ingredientCatalog) {
         this.recipeRepo = recipeRepo;
         this.userRepo = userRepo;
+        this.nutritionJobs = nutritionJobs;
+        this.nutritionCache = nutritionCache;
+        this.nutritionClient = nutritionClient;
+        this.nutritionProviders = nutritionProviders;
+        this.ingredientResolver = ingredientResolver;
+        this.localNutrition = localNutrition;
+        this.ingredientCatalog = ingredientCatalog;
     }
 
     @Transactional
     public void saveRecipe(RecipeConv recipe, UserConv user) {
+        // Before the catalog sees the names: its columns are shorter than the old recipe_ingredient.name
+        validate(recipe);
         UserEntity owner = userRepo.findByEmail(user.getEmail())
                 .orElseThrow(() -> new IllegalStateException("Owner user not found in DB: " + user.getEmail()));
 
-        RecipeEntity e = new RecipeEntity();
-        e.setOwner(owner);
-        e.setName(recipe.getName());
-        e.setDescription(recipe.getDescription());
+        RecipeEntity e = toEntity(recipe, owner);
 
-        // Ingredients -> Entity
-        List<IngredientValue> ingValues = new ArrayList<>();
-        if (recipe.getIngredients() != null) {
-            for (IngredientConv ing : recipe.getIngredients()) {
-                IngredientValue v = new IngredientValue();
-                v.setName(ing.getName());
-                v.setUnit(ing.getUnit());
-                v.setAmount(ing.getAmount());
-                ingValues.add(v);
+        // Shares the cache/local table already know are summed right away; the rest is fetched
+        // by the NutritionEnrichmentWorker after commit, not inside this transaction
+        RecipeEntity saved = recipeRepo.save(e);
+        refreshNutrition(saved);
+
+        // Update conv like before
+        recipe.setId(Math.toIntExact(saved.getId()));
+        recipe.setOwner(user.getEmail());
+        recipe.setServings(saved.getServings());
+    }
+
+    /**
+     * Saves one chunk of a bulk import in one transaction; the inserts are JDBC-batched.
+     * No nutrition lookup happens here: the recipes are PENDING with BULK jobs, so the worker fills them in
+     * after the import (within the quota share BULK may use). The recipes must have passed {@link #validate}.
+     */
+    @Transactional
+    public List<Long> importChunk(List<RecipeConv> recipes, String ownerEmail) {
+        UserEntity owner = userRepo.findByEmail(ownerEmail)
+                .orElseThrow(() -> new IllegalStateException("Owner user not found in DB: " + ownerEmail));
+
+        List<RecipeEntity> entities = new ArrayList<>();
+        for (RecipeConv recipe : recipes) {
+            RecipeEntity e = toEntity(recipe, owner);
+            if (e.getIngredients().isEmpty()) {
+                e.sumIngredientNutrition();
+                e.setNutritionStatus(NutritionStatus.COMPLETE);
+            } else {
+                e.setNutritionStatus(NutritionStatus.PENDING);
             }
+            entities.add(e);
         }
-        e.setIngredients(ingValues);
 
-        // --- Nutrition API call + store result (optional) ---
-        try {
-            List<String> names = new ArrayList<>();
-            List<Double> amounts = new ArrayList<>();
-
-            if (recipe.getIngredients() != null) {
-                for (IngredientConv ing : recipe.getIngredients()) {
-                    names.add(ing.getName());
-
-                    double amount = 0.0;
-                    if (ing.getAmount() != null) {
-                        String normalized = ing.getAmount().trim().replace(",", ".");
-                        try {
-                            amount = Double.parseDouble(normalized);
-                        } catch (NumberFormatException ignored) { }
-                    }
-                    amounts.add(amount);
-                }
-            }
+        List<Long> ids = new ArrayList<>();
+        List<Long> pending = new ArrayList<>();
+        for (RecipeEntity e : recipeRepo.saveAll(entities)) {
+            ids.add(e.getId());
+            if (e.getNutritionStatus() == NutritionStatus.PENDING) pending.add(e.getId());
+        }
+        nutritionJobs.enqueueNew(pending, NutritionLane.BULK);
+        return ids;
+    }
 
-            String jsonPayload = generateIngredientString(names, amounts);
-            NutritionConv result = sendNutritionRequest(jsonPayload);
-
-            if (result != null) {
-                e.setCaloriesKcal(result.getCaloriesKcal());
-                e.setTotalFatG(result.getTotalFatG());
-                e.setSaturatedFatG(result.getSaturatedFatG());
-                e.setCholesterolMg(result.getCholesterolMg());
-                e.setSodiumMg(result.getSodiumMg());
-                e.setTotalCarbohydratesG(result.getTotalCarbohydratesG());
-                e.setDietaryFiberG(result.getDietaryFiberG());
-                e.setSugarsG(result.getSugarsG());
-                e.setProteinG(result.getProteinG());
-            }
-        } catch (Exception ex) {
-            // IMPORTANT: don’t throw, otherwise you rollback saving the recipe
-            System.err.println("Nutrition API failed, saving recipe without nutrition: " + ex.getMessage());
+    // Checks what the database would otherwise reject (or what would fail a whole import chunk)
+    public static void validate(RecipeConv recipe) {
+        validateName(recipe.getName());
+        if (recipe.getServings() != null) requireServings(recipe.getServings());
+        if (recipe.getIngredients() != null) validateIngredients(recipe.getIngredients());
+    }
+
+    private static void validateName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Recipe name must not be blank");
         }
+        if (name.length() > 200) {
+            throw new IllegalArgumentException("Recipe name must not be longer than 200 characters");
+        }
+    }
 
-        RecipeEntity saved = recipeRepo.save(e);
+    private static void validateIngredients(List<IngredientConv> ingredients) {
+        for (IngredientConv ing : ingredients) {
+            if (ing == null || ing.getName() == null || ing.getName().isBlank()) {
+                throw new IllegalArgumentException("Ingredient name must not be blank");
+            }
+            if (ing.getName().trim().length() > 200) {
+                throw new IllegalArgumentException("Ingredient name must not be longer than 200 characters");
+            }
+            if (length(ing.getAmount()) > 255 || length(ing.getUnit()) > 255) {
+                throw new IllegalArgumentException("Ingredient amount and unit must not be longer than 255 characters");
+            }
+        }
+    }
 
-        // Update conv like before
-        recipe.setId(Math.toIntExact(saved.getId()));
-        recipe.setOwner(user.getEmail());
+    private static int length(String s) {
+        return s != null ? s.length() : 0;
     }
 
     @Transactional(readOnly = true)
@@ -118,6 +155,18 @@ public class RecipeManager {
         return recipes;
     }
 
+    // Owner's recipes that use the ingredient; unknown names match nothing
+    @Transactional(readOnly = true)
+    public Map<Integer, String> readRecipeNamesWithIngredient(UserConv user, String ingredient) {
+        Map<Integer, String> recipes = new LinkedHashMap<>();
+        Long ingredientId = ingredientCatalog.findId(ingredient);
+        if (ingredientId == null) return recipes;
+        for (RecipeEntity r : recipeRepo.findByOwnerEmailAndIngredientId(user.getEmail(), ingredientId)) {
+            recipes.put(Math.toIntExact(r.getId()), r.getName());
+        }
+        return recipes;
+    }
+
     @Transactional(readOnly = true)
     public List<Integer> readRecipeIDs(UserConv user) {
         List<Integer> ids = new ArrayList<>();
@@ -169,34 +218,17 @@ public class RecipeManager {
 
     @Transactional(readOnly = true)
     public LargeRecipeConv readRecipeDetailByIdForOwner(int recipeId, UserConv user) {
+        return readRecipeDetailByIdForOwner(recipeId, user, null);
+    }
+
+    // servings == null: as stored; otherwise amounts and nutrition are scaled from the stored values
+    @Transactional(readOnly = true)
+    public LargeRecipeConv readRecipeDetailByIdForOwner(int recipeId, UserConv user, Integer servings) {
         if (user == null || user.getEmail() == null) return null;
 
         RecipeEntity r = recipeRepo.findByIdAndOwner_Email((long) recipeId, user.getEmail()).orElse(null);
         if (r == null) return null;
-
-        List<IngredientConv> ingredients = new ArrayList<>();
-        if (r.getIngredients() != null) {
-            for (IngredientValue v : r.getIngredients()) {
-                ingredients.add(new IngredientConv(v.getName(), v.getUnit(), v.getAmount()));
-            }
-        }
-
-        return new LargeRecipeConv(
-                Math.toIntExact(r.getId()),
-                r.getName(),
-                r.getOwner() != null ? r.getOwner().getEmail() : null,
-                ingredients,
-                r.getDescription(),
-                safe0(r.getCaloriesKcal()),
-                safe0(r.getTotalFatG()),
-                safe0(r.getSaturatedFatG()),
-                safe0(r.getCholesterolMg()),
-                safe0(r.getSodiumMg()),
-                safe0(r.getTotalCarbohydratesG()),
-                safe0(r.getDietaryFiberG()),
-                safe0(r.getSugarsG()),
-                safe0(r.getProteinG())
-        );
+        return toDetail(r, servings);
     }
 
     @Transactional
@@ -205,6 +237,7 @@ public class RecipeManager {
         RecipeEntity r = recipeRepo.findByIdAndOwner_Email(recipeId, user.getEmail()).orElse(null);
         if (r == null) return false;
         recipeRepo.delete(r);
+        nutritionJobs.cancel(recipeId);
         return true;
     }
 
@@ -249,32 +282,257 @@ public class RecipeManager {
 
     @Transactional(readOnly = true)
     public LargeRecipeConv readSharedRecipeDetailById(long recipeId) {
+        return readSharedRecipeDetailById(recipeId, null);
+    }
+
+    @Transactional(readOnly = true)
+    public LargeRecipeConv readSharedRecipeDetailById(long recipeId, Integer servings) {
         RecipeEntity r = recipeRepo.findByIdAndSharedTrue(recipeId).orElse(null);
         if (r == null) return null;
+        return toDetail(r, servings);
+    }
+
+    // ---- Einzelne Zutaten ändern: Nährwerte werden als Delta neu berechnet ----
+
+    @Transactional
+    public LargeRecipeConv addIngredient(long recipeId, IngredientConv ingredient, UserConv user) {
+        validateIngredients(Collections.singletonList(ingredient));
+        RecipeEntity r = findOwned(recipeId, user);
+        if (r == null) return null;
+        r.getIngredients().add(toValue(ingredient));
+        refreshNutrition(r);
+        return toDetail(r);
+    }
+
+    @Transactional
+    public LargeRecipeConv updateIngredient(long recipeId, int index, IngredientConv ingredient, UserConv user) {
+        validateIngredients(Collections.singletonList(ingredient));
+        RecipeEntity r = findOwned(recipeId, user);
+        if (r == null) return null;
+        IngredientValue old = ingredientAt(r, index);
+        IngredientValue updated = toValue(ingredient);
+
+        // Same ingredient with another amount: scale the stored share instead of looking it up again
+        double oldGrams = gramsOf(old);
+        if (old.hasNutrition() && oldGrams > 0
+                && ingredientResolver.canonicalOrFolded(old.getName())
+                .equals(ingredientResolver.canonicalOrFolded(updated.getName()))) {
+            updated.setNutrition(scale(old.getNutrition(), gramsOf(updated) / oldGrams));
+        }
+        r.getIngredients().set(index, updated);
+        refreshNutrition(r);
+        return toDetail(r);
+    }
+
+    @Transactional
+    public LargeRecipeConv removeIngredient(long recipeId, int index, UserConv user) {
+        RecipeEntity r = findOwned(recipeId, user);
+        if (r == null) return null;
+        ingredientAt(r, index);
+        r.getIngredients().remove(index);
+        refreshNutrition(r);
+        return toDetail(r);
+    }
+
+    /**
+     * Partial update; missing fields stay as they are. A new ingredient list is applied by position, so only
+     * changed rows are written, and nutrition is only recomputed if the ingredients' content hash changed.
+     * Editing just the description is a single UPDATE of the recipe row.
+     */
+    @Transactional
+    public LargeRecipeConv patchRecipe(long recipeId, RecipePatchConv patch, UserConv user) {
+        // Same checks as on create, all before anything is applied
+        if (patch.getName() != null) validateName(patch.getName());
+        if (patch.getServings() != null) requireServings(patch.getServings());
+        if (patch.getIngredients() != null) validateIngredients(patch.getIngredients());
+
+        RecipeEntity r = findOwned(recipeId, user);
+        if (r == null) return null;
+
+        if (patch.getName() != null) r.setName(patch.getName());
+        if (patch.getDescription() != null) r.setDescription(patch.getDescription());
+        if (patch.getServings() != null) r.setServings(patch.getServings());
+
+        if (patch.getIngredients() != null) {
+            String before = ingredientsHash(r.getIngredients());
+            applyIngredients(r, patch.getIngredients());
+            if (!before.equals(ingredientsHash(r.getIngredients()))) refreshNutrition(r);
+        }
+        return toDetail(r);
+    }
+
+    private void applyIngredients(RecipeEntity r, List<IngredientConv> ingredients) {
+        List<IngredientValue> current = r.getIngredients();
+
+        // Known shares by canonical ingredient: moved or re-weighed ingredients are scaled, not looked up again
+        Map<String, IngredientValue> withShare = new HashMap<>();
+        for (IngredientValue v : current) {
+            if (v.hasNutrition() && gramsOf(v) > 0) {
+                withShare.putIfAbsent(ingredientResolver.canonicalOrFolded(v.getName()), v);
+            }
+        }
+
+        for (int i = 0; i < ingredients.size(); i++) {
+            IngredientConv ing = ingredients.get(i);
+            if (i < current.size() && sameText(current.get(i), ing)) continue;
+
+            IngredientValue updated = toValue(ing);
+            IngredientValue old = withShare.get(ingredientResolver.canonicalOrFolded(updated.getName()));
+            if (old != null) updated.setNutrition(scale(old.getNutrition(), gramsOf(updated) / gramsOf(old)));
+            if (i < current.size()) {
+                current.set(i, updated);
+            } else {
+                current.add(updated);
+            }
+        }
+        while (current.size() > ingredients.size()) {
+            current.remove(current.size() - 1);
+        }
+    }
+
+    private static boolean sameText(IngredientValue v, IngredientConv ing) {
+        return ing != null && ing.getName() != null
+                && IngredientCatalog.keyOf(v.getName()).equals(IngredientCatalog.keyOf(ing.getName()))
+                && Objects.equals(v.getAmount(), ing.getAmount())
+                && Objects.equals(v.getUnit(), ing.getUnit());
+    }
+
+    /**
+     * Hash of what the nutrition depends on, per position: canonical ingredient and grams. The position is part of
+     * it because a queued job writes its shares by index; a reorder must bump the job's revision like any other change.
+     */
+    private String ingredientsHash(List<IngredientValue> ingredients) {
+        List<String> parts = new ArrayList<>();
+        for (IngredientValue v : ingredients) {
+            parts.add(ingredientResolver.canonicalOrFolded(v.getName()) + "|" + gramsOf(v));
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.join("\n", parts).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private RecipeEntity findOwned(long recipeId, UserConv user) {
+        if (user == null || user.getEmail() == null) return null;
+        return recipeRepo.findByIdAndOwner_Email(recipeId, user.getEmail()).orElse(null);
+    }
+
+    private static IngredientValue ingredientAt(RecipeEntity r, int index) {
+        if (index < 0 || index >= r.getIngredients().size()) {
+            throw new IllegalArgumentException("Ingredient index out of range");
+        }
+        return r.getIngredients().get(index);
+    }
+
+    private RecipeEntity toEntity(RecipeConv recipe, UserEntity owner) {
+        RecipeEntity e = new RecipeEntity();
+        e.setOwner(owner);
+        e.setName(recipe.getName());
+        e.setDescription(recipe.getDescription());
+        e.setServings(recipe.getServings() != null ? requireServings(recipe.getServings()) : 1);
+
+        // Ingredients -> Entity
+        List<IngredientValue> ingValues = new ArrayList<>();
+        if (recipe.getIngredients() != null) {
+            for (IngredientConv ing : recipe.getIngredients()) {
+                ingValues.add(toValue(ing));
+            }
+        }
+        e.setIngredients(ingValues);
+        return e;
+    }
+
+    // Name -> catalog reference (cached id, no select on a hit)
+    private IngredientValue toValue(IngredientConv ing) {
+        if (ing == null || ing.getName() == null || ing.getName().isBlank()) {
+            throw new IllegalArgumentException("Ingredient name must not be blank");
+        }
+        IngredientValue v = new IngredientValue();
+        v.setIngredient(ingredientCatalog.resolve(ing.getName()));
+        v.setUnit(ing.getUnit());
+        v.setAmount(ing.getAmount());
+        return v;
+    }
+
+    private static LargeRecipeConv toDetail(RecipeEntity r) {
+        return toDetail(r, null);
+    }
+
+    /**
+     * Detail view incl. each ingredient's share, so clients need no extra call for the breakdown.
+     * With {@code servings}, amounts, shares and totals are scaled from the stored base values.
+     */
+    private static LargeRecipeConv toDetail(RecipeEntity r, Integer servings) {
+        int baseServings = Math.max(1, r.getServings());
+        double factor = servings != null ? (double) requireServings(servings) / baseServings : 1.0;
 
         List<IngredientConv> ingredients = new ArrayList<>();
         if (r.getIngredients() != null) {
             for (IngredientValue v : r.getIngredients()) {
-                ingredients.add(new IngredientConv(v.getName(), v.getUnit(), v.getAmount()));
+                IngredientConv ing = scaledIngredient(v, factor);
+                NutritionConv share = v.getNutrition();
+                ing.setNutrition(share != null && factor != 1.0 ? scale(share, factor) : share);
+                ingredients.add(ing);
             }
         }
 
-        return new LargeRecipeConv(
+        LargeRecipeConv conv = new LargeRecipeConv(
                 Math.toIntExact(r.getId()),
                 r.getName(),
                 r.getOwner() != null ? r.getOwner().getEmail() : null,
                 ingredients,
                 r.getDescription(),
-                safe0(r.getCaloriesKcal()),
-                safe0(r.getTotalFatG()),
-                safe0(r.getSaturatedFatG()),
-                safe0(r.getCholesterolMg()),
-                safe0(r.getSodiumMg()),
-                safe0(r.getTotalCarbohydratesG()),
-                safe0(r.getDietaryFiberG()),
-                safe0(r.getSugarsG()),
-                safe0(r.getProteinG())
+                safe0(r.getCaloriesKcal()) * factor,
+                safe0(r.getTotalFatG()) * factor,
+                safe0(r.getSaturatedFatG()) * factor,
+                safe0(r.getCholesterolMg()) * factor,
+                safe0(r.getSodiumMg()) * factor,
+                safe0(r.getTotalCarbohydratesG()) * factor,
+                safe0(r.getDietaryFiberG()) * factor,
+                safe0(r.getSugarsG()) * factor,
+                safe0(r.getProteinG()) * factor
         );
+        conv.setServings(servings != null ? servings : baseServings);
+        conv.setNutritionStatus(r.getNutritionStatus() != null ? r.getNutritionStatus().name() : null);
+        return conv;
+    }
+
+    public static int requireServings(int servings) {
+        if (servings < 1 || servings > MAX_SERVINGS) {
+            throw new IllegalArgumentException("Servings must be between 1 and " + MAX_SERVINGS);
+        }
+        return servings;
+    }
+
+    /**
+     * Ingredient with its amount scaled from the stored amountValue, shown in the canonical unit
+     * ("1 kg" x2 -> "2000 g", "2 EL" x2 -> "60 ml"); a number with an unknown unit keeps its unit ("1 Dose" x2 -> "2 Dose").
+     * Amounts that were not parsed fall back to the string ("1,5" x2 -> "3"); free text like "etwas" stays as written.
+     */
+    private static IngredientConv scaledIngredient(IngredientValue v, double factor) {
+        if (factor == 1.0) return new IngredientConv(v.getName(), v.getUnit(), v.getAmount());
+        Double value = v.getAmountValue();
+        if (value == null) return new IngredientConv(v.getName(), v.getUnit(), scaleAmount(v.getAmount(), factor));
+        IngredientUnit unit = v.getUnitCanonical();
+        return new IngredientConv(v.getName(), unit != null ? unit.toString() : v.getUnit(), formatAmount(value * factor));
+    }
+
+    private static String scaleAmount(String amount, double factor) {
+        if (amount == null) return null;
+        double value;
+        try {
+            value = Double.parseDouble(amount.trim().replace(",", "."));
+        } catch (NumberFormatException ignored) {
+            return amount;
+        }
+        return formatAmount(value * factor);
+    }
+
+    private static String formatAmount(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
     }
 
     @Transactional
@@ -315,6 +573,15 @@ public class RecipeManager {
 
     @Transactional(readOnly = true)
     public List<SendNutriConv> readNutritionByIds(List<Integer> recipeIds) {
+        return readNutritionByIds(recipeIds, null);
+    }
+
+    /**
+     * Nutrition per meal plan slot. {@code servings} is parallel to {@code recipeIds};
+     * a null entry (or a null list) means the recipe's own servings.
+     */
+    @Transactional(readOnly = true)
+    public List<SendNutriConv> readNutritionByIds(List<Integer> recipeIds, List<Integer> servings) {
         if (recipeIds == null || recipeIds.isEmpty()) {
             return List.of();
         }
@@ -326,24 +593,28 @@ public class RecipeManager {
                 .toList();
 
         // One DB call (may return in any order!)
-        Map<Long, SendNutriConv> nutriById = new HashMap<>();
+        Map<Long, RecipeEntity> recipeById = new HashMap<>();
         for (RecipeEntity r : recipeRepo.findAllById(ids)) {
-            nutriById.put(r.getId(), new SendNutriConv(
-                    safe0(r.getCaloriesKcal()),
-                    safe0(r.getProteinG()),
-                    safe0(r.getTotalCarbohydratesG()),
-                    safe0(r.getTotalFatG())
-            ));
+            recipeById.put(r.getId(), r);
         }
 
-        // Rebuild list in the same order as recipeIds
+        // Rebuild list in the same order as recipeIds, scaled to each slot's servings
         List<SendNutriConv> nutrition = new ArrayList<>(recipeIds.size());
-        for (Integer id : recipeIds) {
-            if (id == null) {
+        for (int i = 0; i < recipeIds.size(); i++) {
+            Integer id = recipeIds.get(i);
+            RecipeEntity r = id != null ? recipeById.get(id.longValue()) : null;
+            if (r == null) {
                 nutrition.add(new SendNutriConv(0, 0, 0, 0)); // empty slot
-            } else {
-                nutrition.add(nutriById.getOrDefault(id.longValue(), new SendNutriConv(0, 0, 0, 0)));
+                continue;
             }
+            Integer slotServings = servings != null && i < servings.size() ? servings.get(i) : null;
+            double factor = slotServings != null ? (double) slotServings / Math.max(1, r.getServings()) : 1.0;
+            nutrition.add(new SendNutriConv(
+                    safe0(r.getCaloriesKcal()) * factor,
+                    safe0(r.getProteinG()) * factor,
+                    safe0(r.getTotalCarbohydratesG()) * factor,
+                    safe0(r.getTotalFatG()) * factor
+            ));
         }
         return nutrition;
     }
@@ -359,79 +630,143 @@ public class RecipeManager {
     @Transactional(readOnly = true)
     public List<Double> readRecipeIngredientAmount(int id) {
         return recipeRepo.findById((long) id)
-                .map(r -> r.getIngredients().stream().map(v -> {
-                    try { return Double.parseDouble(v.getAmount()); }
-                    catch (Exception ignored) { return 0.0; }
-                }).toList())
+                .map(r -> r.getIngredients().stream().map(this::gramsOf).toList())
                 .orElse(List.of());
     }
 
-    // ---- Unverändert: Helper für Nutrition API ----
+    /**
+     * Per-100 g keys of the ingredients that would need a metered API call: no stored share,
+     * and neither the cache nor the local table knows them. Used to size the worker's BULK claims by quota.
+     */
+    public Set<String> meteredLookupKeys(List<IngredientValue> ingredients) {
+        Set<String> keys = new HashSet<>();
+        if (!nutritionClient.isConfigured()) return keys;
+        for (IngredientValue ing : ingredients) {
+            if (ing.hasNutrition() || gramsOf(ing) <= 0) continue;
+            String key = per100gKeyOf(ing.getName());
+            if (keys.contains(key) || nutritionCache.get(key) != null) continue;
+            if (localNutrition.compute(List.of(ing.getName()), PER_100G) != null) continue;
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    public boolean isNutritionApiConfigured() {
+        return nutritionClient.isConfigured();
+    }
 
-    public String generateIngredientString(List<String> names, List<Double> amounts) {
-        if (names.size() != amounts.size()) {
-            throw new IllegalArgumentException("Beide Listen müssen die gleiche Länge haben.");
+    /**
+     * Per-ingredient nutrition for a recipe, without blocking. Called by the enrichment worker, outside of any transaction.
+     * Ingredients that already carry their share are reused; the others are looked up per 100 g
+     * (cache, then the NutritionProviders in order) and scaled to their amount.
+     * {@code inFlight} lets several recipes share one lookup per ingredient; a failed lookup is removed from it
+     * again, so later recipes start a new one instead of reusing the failure. Completes with a list parallel to {@code ingredients} (null entries: no provider knew the ingredient),
+     * exceptionally if an API call failed or was not allowed.
+     */
+    public CompletableFuture<List<NutritionConv>> lookupBreakdownAsync(List<IngredientValue> ingredients, NutritionLane lane,
+                                                                       Map<String, CompletableFuture<NutritionConv>> inFlight) {
+        List<CompletableFuture<NutritionConv>> parts = new ArrayList<>(ingredients.size());
+        for (IngredientValue ing : ingredients) {
+            double grams = gramsOf(ing);
+            if (ing.hasNutrition()) {
+                parts.add(CompletableFuture.completedFuture(ing.getNutrition()));
+            } else if (grams <= 0) {
+                parts.add(CompletableFuture.completedFuture(scale(null, 0)));
+            } else {
+                String key = per100gKeyOf(ing.getName());
+                CompletableFuture<NutritionConv> per100g = inFlight.get(key);
+                if (per100g == null) {
+                    CompletableFuture<NutritionConv> started = per100gAsync(key, ing.getName(), lane);
+                    inFlight.put(key, started);
+                    started.whenComplete((result, error) -> {
+                        if (error != null) inFlight.remove(key, started);
+                    });
+                    per100g = started;
+                }
+                parts.add(per100g.thenApply(n -> n != null ? scale(n, grams / 100.0) : null));
+            }
         }
+        return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    List<NutritionConv> shares = new ArrayList<>(parts.size());
+                    for (CompletableFuture<NutritionConv> part : parts) shares.add(part.join());
+                    return shares;
+                });
+    }
 
-        StringBuilder jsonBuilder = new StringBuilder();
-        jsonBuilder.append("{\"ingredients\":[");
+    private CompletableFuture<NutritionConv> per100gAsync(String cacheKey, String name, NutritionLane lane) {
+        NutritionConv cached = nutritionCache.get(cacheKey);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
 
-        for (int i = 0; i < names.size(); i++) {
-            jsonBuilder.append("{")
-                    .append("\"name\":\"").append(names.get(i)).append("\",")
-                    .append("\"amount\":").append(amounts.get(i)).append(",")
-                    .append("\"unit\":\"grams\"")
-                    .append("}");
+        return lookupWithProviders(0, List.of(name), PER_100G, lane)
+                .thenApply(result -> {
+                    nutritionCache.put(cacheKey, result);
+                    return result;
+                });
+    }
 
-            if (i < names.size() - 1) jsonBuilder.append(",");
-        }
+    private CompletableFuture<NutritionConv> lookupWithProviders(int index, List<String> names, List<Double> amounts,
+                                                                 NutritionLane lane) {
+        if (index >= nutritionProviders.size()) return CompletableFuture.completedFuture(null);
+        return nutritionProviders.get(index).lookup(names, amounts, lane)
+                .thenCompose(result -> result != null
+                        ? CompletableFuture.completedFuture(result)
+                        : lookupWithProviders(index + 1, names, amounts, lane));
+    }
 
-        jsonBuilder.append("],\"portions\":1}");
-        return jsonBuilder.toString();
+    // Spellings are resolved first, so "Eier" and "Ei " share a cache entry
+    private String per100gKeyOf(String name) {
+        return NutritionCache.keyOf(List.of(ingredientResolver.canonicalOrFolded(name)), PER_100G);
     }
 
-    public NutritionConv sendNutritionRequest(String ingredientsJson) {
-        try {
-            if (nutritionApiKey == null || nutritionApiKey.isBlank()) {
-                // No key configured -> skip nutrition lookup
-                return null;
-            }
-            URL url = new URL(nutritionApiUrl);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("x-rapidapi-key", nutritionApiKey);
-            connection.setRequestProperty("x-rapidapi-host", nutritionApiHost);
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setDoOutput(true);
-
-            try (DataOutputStream outputStream = new DataOutputStream(connection.getOutputStream())) {
-                outputStream.writeBytes(ingredientsJson);
-                outputStream.flush();
-            }
+    // Share from the cache or the local table only (no API call); null if neither knows the ingredient
+    private NutritionConv knownShareOf(IngredientValue ing) {
+        double grams = gramsOf(ing);
+        if (grams <= 0) return scale(null, 0);
+        NutritionConv per100g = nutritionCache.get(per100gKeyOf(ing.getName()));
+        if (per100g == null) per100g = localNutrition.compute(List.of(ing.getName()), PER_100G);
+        return per100g != null ? scale(per100g, grams / 100.0) : null;
+    }
 
-            int responseCode = connection.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                try (BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = in.readLine()) != null) {
-                        response.append(line);
-                    }
-
-                    ObjectMapper objectMapper = new ObjectMapper();
-                    NutritionAnswer nutritionData = objectMapper.readValue(response.toString(), NutritionAnswer.class);
-                    return nutritionData.getNutritionalValues();
-                }
-            } else {
-                Logger.getLogger(RecipeManager.class.getName()).log(Level.SEVERE, "Fehlerhafte API-Antwort: Code " + responseCode);
-                return null;
-            }
-        } catch (IOException e) {
-            Logger.getLogger(RecipeManager.class.getName()).log(Level.SEVERE, "Verbindungsfehler zur Nährwert-API", e);
-            return null;
+    /**
+     * Fills missing ingredient shares from the cache/local table and re-sums the totals.
+     * If a share is still missing, the recipe goes back to PENDING and the worker looks up just that ingredient.
+     */
+    private void refreshNutrition(RecipeEntity r) {
+        for (IngredientValue v : r.getIngredients()) {
+            if (!v.hasNutrition()) v.setNutrition(knownShareOf(v));
+        }
+        if (r.sumIngredientNutrition()) {
+            if (r.getNutritionStatus() == NutritionStatus.PENDING) nutritionJobs.cancel(r.getId());
+            r.setNutritionStatus(NutritionStatus.COMPLETE);
+        } else {
+            r.setNutritionStatus(NutritionStatus.PENDING);
+            nutritionJobs.enqueue(r.getId(), NutritionLane.INTERACTIVE);
         }
     }
 
+    /**
+     * Grams for the nutrition math, from the parsed amount (no string parsing here).
+     * Volumes count with the density of water, pieces with a typical piece weight;
+     * a number without a known unit counts as grams, as the API payload always said.
+     */
+    private double gramsOf(IngredientValue ing) {
+        Double value = ing.getAmountValue();
+        if (value == null) return 0.0;
+        IngredientUnit unit = ing.getUnitCanonical();
+        if (unit == IngredientUnit.STUECK) {
+            return value * PieceWeights.gramsPerPiece(ingredientResolver.resolve(ing.getName()));
+        }
+        return value;
+    }
+
+    // null scales to an all-zero share
+    private static NutritionConv scale(NutritionConv n, double factor) {
+        if (n == null) return new NutritionConv(0, 0, 0, 0, 0, 0, 0, 0, 0);
+        return new NutritionConv(n.getCaloriesKcal() * factor, n.getTotalFatG() * factor, n.getSaturatedFatG() * factor,
+                n.getCholesterolMg() * factor, n.getSodiumMg() * factor, n.getTotalCarbohydratesG() * factor,
+                n.getDietaryFiberG() * factor, n.getSugarsG() * factor, n.getProteinG() * factor);
+    }
 
     private static double safe0(Double v) {
         return v != null ? v : 0.0;
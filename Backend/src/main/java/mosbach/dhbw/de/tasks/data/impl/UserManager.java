@@ -1,16 +1,25 @@
 package mosbach.dhbw.de.tasks.data.impl;
 
+import io.jsonwebtoken.Claims;
+import mosbach.dhbw.de.tasks.cache.ExpiringCache;
 import mosbach.dhbw.de.tasks.data.api.UserIF;
-import mosbach.dhbw.de.tasks.model.TokenConv;
 import mosbach.dhbw.de.tasks.model.UserConv;
 import mosbach.dhbw.de.tasks.security.JwtService;
+import mosbach.dhbw.de.tasks.security.PasswordHasher;
+import mosbach.dhbw.de.tasks.security.TokenVersionRegistry;
 import mosbach.dhbw.de.tasks.persistence.entity.UserEntity;
 import mosbach.dhbw.de.tasks.persistence.repo.UserRepository;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class UserManager {
@@ -18,14 +27,33 @@ public class UserManager {
     private final UserRepository userRepo;
 
     private final JwtService jwtService;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final PasswordHasher passwordHasher;
+    private final TokenVersionRegistry tokenVersions;
+    private final TransactionTemplate tx;
 
-    public UserManager(UserRepository userRepo, JwtService jwtService) {
+    // Token owners by email (= token subject); evicted explicitly on update/delete
+    private final ExpiringCache<String, UserConv> principals;
+    private final Duration principalTtl;
+
+    public UserManager(
+            UserRepository userRepo,
+            JwtService jwtService,
+            PasswordHasher passwordHasher,
+            TokenVersionRegistry tokenVersions,
+            PlatformTransactionManager transactionManager,
+            @Value("${mealy.auth.principalCache.maxEntries:10000}") int principalCacheMaxEntries,
+            @Value("${mealy.auth.principalCache.ttlSeconds:300}") long principalCacheTtlSeconds
+    ) {
         this.userRepo = userRepo;
         this.jwtService = jwtService;
+        this.passwordHasher = passwordHasher;
+        this.tokenVersions = tokenVersions;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.principals = new ExpiringCache<>(principalCacheMaxEntries);
+        this.principalTtl = Duration.ofSeconds(principalCacheTtlSeconds);
     }
 
-    @Transactional
+    // Not @Transactional: no DB connection is held while BCrypt runs
     public UserEntity addUser(UserIF user) {
         if (user == null || user.getEmail() == null || user.getEmail().isBlank()) {
             throw new IllegalArgumentException("Email must not be blank");
@@ -33,16 +61,20 @@ public class UserManager {
         if (user.getPassword() == null || user.getPassword().isBlank()) {
             throw new IllegalArgumentException("Password must not be blank");
         }
-        if (userRepo.existsByEmail(user.getEmail())) {
+        if (userRepo.existsByEmailNormalized(UserEntity.normalize(user.getEmail()))) {
             throw new IllegalArgumentException("Email already used");
         }
+        // Usernames are a login identifier too, so they must be unique (case-insensitive)
+        if (user.getUserName() != null && userRepo.existsByUserNameNormalized(UserEntity.normalize(user.getUserName()))) {
+            throw new IllegalArgumentException("Username already used");
+        }
 
         UserEntity e = new UserEntity();
         e.setUserName(user.getUserName());
         e.setEmail(user.getEmail());
 
         // Store BCrypt hash (not plain)
-        e.setPasswordHash(passwordEncoder.encode(user.getPassword()));
+        e.setPasswordHash(passwordHasher.encode(user.getPassword()));
 
         return userRepo.save(e);
     }
@@ -50,8 +82,8 @@ public class UserManager {
     /**
      * Authenticate by username or email + password.
      * Also upgrades legacy plain-text passwordHash values to BCrypt.
+     * Not @Transactional: no DB connection is held while BCrypt runs.
      */
-    @Transactional
     public UserEntity authenticate(UserConv data) {
         if (data == null) return null;
         String identifier = null;
@@ -59,21 +91,15 @@ public class UserManager {
         else if (data.getUserName() != null && !data.getUserName().isBlank()) identifier = data.getUserName().trim();
         if (identifier == null || data.getPassword() == null) return null;
 
+        // Indexed, case-insensitive lookup; legacy duplicate usernames resolve to the oldest account
+        String normalized = UserEntity.normalize(identifier);
         UserEntity u = identifier.contains("@")
-                ? userRepo.findByEmail(identifier).orElse(null)
-                : userRepo.findFirstByUserName(identifier).orElse(null);
+                ? userRepo.findByEmailNormalized(normalized).orElse(null)
+                : userRepo.findFirstByUserNameNormalizedOrderByIdAsc(normalized).orElse(null);
         if (u == null) return null;
         return passwordsMatchAndUpgradeIfNeeded(data.getPassword(), u) ? u : null;
     }
 
-    @Transactional(readOnly = true)
-    public UserConv searchUserByEmail(String email) {
-        if (email == null || email.isBlank()) return null;
-        return userRepo.findByEmail(email)
-                .map(u -> new UserConv(u.getUserName(), u.getEmail(), u.getPasswordHash()))
-                .orElse(null);
-    }
-
     // ==== Token-Teil (Phase 3: JWT) ====
 
     public String issueToken(UserEntity user) {
@@ -82,48 +108,93 @@ public class UserManager {
                 user.getEmail(),
                 Map.of(
                         "uid", user.getId(),
+                        "tv", user.getTokenVersion(),
                         "userName", user.getUserName() != null ? user.getUserName() : ""
                 )
         );
     }
 
-    public boolean checkToken(TokenConv token) {
-        if (token == null || token.getToken() == null || token.getToken().isBlank()) return false;
-        String jwt = token.getToken();
-        if (!jwtService.isTokenValid(jwt)) return false;
-        String email = jwtService.extractSubject(jwt);
-        return email != null && userRepo.existsByEmail(email);
+    /**
+     * Resolves the owner of a token with one signature check and at most one user lookup.
+     * Revocation is checked against the in-memory token version, owners are cached for a short TTL,
+     * so repeat requests do not touch app_user.
+     * Returns null if the token is invalid/revoked or the user no longer exists.
+     * The returned principal never carries the password hash.
+     */
+    public UserConv resolveTokenOwner(String token) {
+        if (token == null || token.isBlank()) return null;
+        Claims claims = jwtService.parseValidClaims(token);
+        if (claims == null || claims.getSubject() == null) return null;
+        if (!hasCurrentTokenVersion(claims)) return null;
+
+        String email = claims.getSubject();
+        UserConv cached = principals.get(email);
+        if (cached != null) return copyOf(cached);
+
+        UserConv loaded = userRepo.findByEmail(email)
+                .map(u -> new UserConv(u.getUserName(), u.getEmail(), null))
+                .orElse(null);
+        if (loaded == null) return null;
+        principals.put(email, loaded, principalTtl);
+        return copyOf(loaded);
     }
 
-    public UserConv TokenToUser(String token) {
-        if (token == null || token.isBlank()) return null;
-        if (!jwtService.isTokenValid(token)) return null;
-        String email = jwtService.extractSubject(token);
-        if (email == null) return null;
-        return searchUserByEmail(email);
+    public Map<String, Object> getPrincipalCacheStats() {
+        return principals.stats();
     }
 
+    /**
+     * Invalidates every token issued so far for this user ("logout everywhere").
+     */
     @Transactional
+    public boolean revokeAllTokens(UserConv tokenOwner) {
+        if (tokenOwner == null || tokenOwner.getEmail() == null) return false;
+        UserEntity e = userRepo.findByEmail(tokenOwner.getEmail()).orElse(null);
+        if (e == null) return false;
+        bumpTokenVersion(e);
+        userRepo.save(e);
+        return true;
+    }
+
+    /**
+     * Not @Transactional: a new password is hashed first, the row is then changed in a short transaction,
+     * so no DB connection is held while BCrypt runs (or waits for the hasher pool).
+     */
     public UserEntity updateUserForTokenOwner(UserConv tokenOwner, UserConv update) {
         if (tokenOwner == null || tokenOwner.getEmail() == null) return null;
+        String newPasswordHash = update != null && update.getPassword() != null && !update.getPassword().isBlank()
+                ? passwordHasher.encode(update.getPassword())
+                : null;
+        return tx.execute(status -> applyUserUpdate(tokenOwner, update, newPasswordHash));
+    }
+
+    private UserEntity applyUserUpdate(UserConv tokenOwner, UserConv update, String newPasswordHash) {
         UserEntity e = userRepo.findByEmail(tokenOwner.getEmail()).orElse(null);
         if (e == null) return null;
+        evictPrincipal(tokenOwner.getEmail());
 
         if (update != null) {
             if (update.getUserName() != null && !update.getUserName().isBlank()) {
+                String normalized = UserEntity.normalize(update.getUserName());
+                if (!normalized.equals(e.getUserNameNormalized()) && userRepo.existsByUserNameNormalized(normalized)) {
+                    throw new IllegalArgumentException("Username already used");
+                }
                 e.setUserName(update.getUserName());
             }
 
             // Email change is allowed in Phase 3 (JWT). Old token will become invalid.
             if (update.getEmail() != null && !update.getEmail().isBlank() && !update.getEmail().equals(e.getEmail())) {
-                if (userRepo.existsByEmail(update.getEmail())) {
+                String normalized = UserEntity.normalize(update.getEmail());
+                if (!normalized.equals(e.getEmailNormalized()) && userRepo.existsByEmailNormalized(normalized)) {
                     throw new IllegalArgumentException("Email already used");
                 }
                 e.setEmail(update.getEmail());
+                bumpTokenVersion(e);
             }
 
-            if (update.getPassword() != null && !update.getPassword().isBlank()) {
-                e.setPasswordHash(passwordEncoder.encode(update.getPassword()));
+            if (newPasswordHash != null) {
+                e.setPasswordHash(newPasswordHash);
+                bumpTokenVersion(e);
             }
         }
 
@@ -136,9 +207,66 @@ public class UserManager {
         UserEntity e = userRepo.findByEmail(email).orElse(null);
         if (e == null) return false;
         userRepo.delete(e);
+        evictPrincipal(email);
+
+        long userId = e.getId();
+        tokenVersions.revoke(userId);
+        afterCompletion(committed -> {
+            if (!committed) tokenVersions.forget(userId);
+        });
         return true;
     }
 
+    // Tokens issued before token versions existed carry no "tv" and count as version 0
+    private boolean hasCurrentTokenVersion(Claims claims) {
+        if (!(claims.get("uid") instanceof Number uid)) {
+            return true; // very old token without uid: the principal lookup decides
+        }
+        int version = claims.get("tv") instanceof Number tv ? tv.intValue() : 0;
+        return tokenVersions.isCurrent(uid.longValue(), version);
+    }
+
+    private void bumpTokenVersion(UserEntity e) {
+        int version = e.getTokenVersion() + 1;
+        e.setTokenVersion(version);
+
+        // Reject old tokens right away; on rollback reload the real version from the DB
+        long userId = e.getId();
+        tokenVersions.update(userId, version);
+        afterCompletion(committed -> {
+            if (committed) tokenVersions.update(userId, version);
+            else tokenVersions.forget(userId);
+        });
+    }
+
+    private static void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private void evictPrincipal(String email) {
+        if (email == null) return;
+        principals.invalidate(email);
+        // Evict again after commit, so a concurrent request cannot re-cache the old row in between
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.invalidate(email);
+                }
+            });
+        }
+    }
+
+    private static UserConv copyOf(UserConv u) {
+        return new UserConv(u.getUserName(), u.getEmail(), null);
+    }
+
     private boolean passwordsMatchAndUpgradeIfNeeded(String rawPassword, UserEntity userEntity) {
         if (rawPassword == null || userEntity == null) return false;
         String stored = userEntity.getPasswordHash();
@@ -146,12 +274,12 @@ public class UserManager {
 
         // BCrypt hashes start with $2a$ / $2b$ / $2y$
         if (stored.startsWith("$2a$") || stored.startsWith("$2b$") || stored.startsWith("$2y$")) {
-            return passwordEncoder.matches(rawPassword, stored);
+            return passwordHasher.matches(rawPassword, stored);
         }
 
         // Legacy plain-text fallback: compare and upgrade
         if (rawPassword.equals(stored)) {
-            userEntity.setPasswordHash(passwordEncoder.encode(rawPassword));
+            userEntity.setPasswordHash(passwordHasher.encode(rawPassword));
             userRepo.save(userEntity);
             return true;
         }
@@ -13,7 +13,8 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 @JsonPropertyOrder({
         "name",
         "unit",
-        "amount"
+        "amount",
+        "nutrition"
 })
 public class IngredientConv {
 
@@ -23,6 +24,9 @@ public class IngredientConv {
     private String unit;
     @JsonProperty("amount")
     private String amount;
+    // This ingredient's share of the recipe nutrition (detail responses only)
+    @JsonProperty("nutrition")
+    private NutritionConv nutrition;
     @JsonIgnore
     private Map<String, Object> additionalProperties = new LinkedHashMap<String, Object>();
 
@@ -70,6 +74,16 @@ public class IngredientConv {
         this.amount = amount;
     }
 
+    @JsonProperty("nutrition")
+    public NutritionConv getNutrition() {
+        return nutrition;
+    }
+
+    @JsonProperty("nutrition")
+    public void setNutrition(NutritionConv nutrition) {
+        this.nutrition = nutrition;
+    }
+
     @JsonAnyGetter
     public Map<String, Object> getAdditionalProperties() {
         return this.additionalProperties;
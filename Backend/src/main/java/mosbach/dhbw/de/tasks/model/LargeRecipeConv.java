@@ -13,6 +13,7 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
         "owner",
         "ingredients",
         "description",
+        "servings",
         "Calories_(kcal)",
         "Total_Fat_(g)",
         "Saturated_Fat_(g)",
@@ -21,7 +22,8 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
         "Total_Carbohydrates_(g)",
         "Dietary_Fiber_(g)",
         "Sugars_(g)",
-        "Protein_(g)"
+        "Protein_(g)",
+        "nutritionStatus"
 })
 public class LargeRecipeConv {
 
@@ -40,6 +42,10 @@ public class LargeRecipeConv {
     @JsonProperty("description")
     private String description;
 
+    // Amounts and nutrition values refer to this many servings
+    @JsonProperty("servings")
+    private Integer servings;
+
     @JsonProperty("Calories_(kcal)")
     private double caloriesKcal;
 
@@ -67,6 +73,10 @@ public class LargeRecipeConv {
     @JsonProperty("Protein_(g)")
     private double proteinG;
 
+    // PENDING while the nutrition values are still being fetched, then COMPLETE or FAILED
+    @JsonProperty("nutritionStatus")
+    private String nutritionStatus;
+
     // Standardkonstruktor
     public LargeRecipeConv() {
     }
@@ -241,5 +251,24 @@ public class LargeRecipeConv {
     public void setProteinG(double proteinG) {
         this.proteinG = proteinG;
     }
-}
 
+    @JsonProperty("nutritionStatus")
+    public String getNutritionStatus() {
+        return nutritionStatus;
+    }
+
+    @JsonProperty("nutritionStatus")
+    public void setNutritionStatus(String nutritionStatus) {
+        this.nutritionStatus = nutritionStatus;
+    }
+
+    @JsonProperty("servings")
+    public Integer getServings() {
+        return servings;
+    }
+
+    @JsonProperty("servings")
+    public void setServings(Integer servings) {
+        this.servings = servings;
+    }
+}
@@ -22,6 +22,12 @@ public class MealPlanConverter {
     }
 
     public static String convertToMealPlanJson(List<String> recipeNames, List<TimeConv> mealTimes, List<SendNutriConv> nutritionValues) {
+        return convertToMealPlanJson(recipeNames, mealTimes, nutritionValues, null);
+    }
+
+    // servings: parallel to the other lists, null entries are left out (= servings of the recipe)
+    public static String convertToMealPlanJson(List<String> recipeNames, List<TimeConv> mealTimes, List<SendNutriConv> nutritionValues,
+                                               List<Integer> servings) {
         try {
             if (recipeNames.size() != mealTimes.size() || mealTimes.size() != nutritionValues.size()) {
                 throw new IllegalArgumentException("Die Listenlängen stimmen nicht überein.");
@@ -40,6 +46,9 @@ public class MealPlanConverter {
                 mealNode.put("protein", nutritionValues.get(i).getProteinG());
                 mealNode.put("carbs", nutritionValues.get(i).getTotalCarbohydratesG());
                 mealNode.put("fats", nutritionValues.get(i).getTotalFatG());
+                if (servings != null && i < servings.size() && servings.get(i) != null) {
+                    mealNode.put("servings", servings.get(i));
+                }
 
                 mealsArray.add(mealNode);
             }
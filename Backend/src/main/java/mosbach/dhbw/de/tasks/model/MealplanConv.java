@@ -10,7 +10,8 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
         "owner",
         "day",
         "time",
-        "id"
+        "id",
+        "servings"
 })
 
 public class MealplanConv {
@@ -30,6 +31,10 @@ public class MealplanConv {
     @JsonProperty("id")
     private String id;
 
+    // Optional: portions for this slot; the recipe's own servings if absent
+    @JsonProperty("servings")
+    private Integer servings;
+
     public MealplanConv() {
     }
 
@@ -90,4 +95,14 @@ public class MealplanConv {
     public void setId(String id) {
         this.id = id;
     }
+
+    @JsonProperty("servings")
+    public Integer getServings() {
+        return servings;
+    }
+
+    @JsonProperty("servings")
+    public void setServings(Integer servings) {
+        this.servings = servings;
+    }
 }
@@ -12,6 +12,7 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
         "name",
         "ingredients",
         "description",
+        "servings",
         "Calories_(kcal)",
         "Total_Fat_(g)",
         "Saturated_Fat_(g)",
@@ -39,6 +40,10 @@ public class RecipeConv {
     @JsonProperty("description")
     private String description;
 
+    // Amounts and nutrition values refer to this many servings
+    @JsonProperty("servings")
+    private Integer servings;
+
     @JsonProperty("Calories_(kcal)")
     private String caloriesKcal;
 
@@ -142,4 +147,14 @@ public class RecipeConv {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    @JsonProperty("servings")
+    public Integer getServings() {
+        return servings;
+    }
+
+    @JsonProperty("servings")
+    public void setServings(Integer servings) {
+        this.servings = servings;
+    }
 }
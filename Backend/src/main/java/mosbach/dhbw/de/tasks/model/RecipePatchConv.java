@@ -0,0 +1,60 @@
+package mosbach.dhbw.de.tasks.model;
+
+import java.util.List;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Body of PATCH /api/recipe/{id}: fields that are missing (null) stay unchanged.
+ * {@code ingredients} replaces the whole list; unchanged positions are not written.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecipePatchConv {
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("description")
+    private String description;
+
+    @JsonProperty("servings")
+    private Integer servings;
+
+    @JsonProperty("ingredients")
+    private List<IngredientConv> ingredients;
+
+    public RecipePatchConv() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Integer getServings() {
+        return servings;
+    }
+
+    public void setServings(Integer servings) {
+        this.servings = servings;
+    }
+
+    public List<IngredientConv> getIngredients() {
+        return ingredients;
+    }
+
+    public void setIngredients(List<IngredientConv> ingredients) {
+        this.ingredients = ingredients;
+    }
+}
@@ -0,0 +1,133 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count-based circuit breaker.
+ * CLOSED: calls pass; {@code failureThreshold} consecutive failures open the circuit.
+ * OPEN: calls are rejected without trying until {@code openMillis} have passed.
+ * HALF_OPEN: up to {@code probes} calls go through; that many successes close the circuit, any failure reopens it.
+ * Every permitted call must hand its {@link Permit} back to exactly one of onSuccess/onFailure/onIgnored.
+ * Each state change starts a new generation; results of calls admitted in an older generation are ignored,
+ * so a slow call from before the circuit opened can neither close nor reopen it while probes are running.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    // Handed out by tryAcquire; ties a call's result to the state it was admitted in
+    public record Permit(long generation) { }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final int probes;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMillis;
+    private int probesInFlight;
+    private int probeSuccesses;
+    private long generation;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreaker(int failureThreshold, long openMillis, int probes) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = Math.max(0, openMillis);
+        this.probes = Math.max(1, probes);
+    }
+
+    // null if the call must not be made
+    public synchronized Permit tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAtMillis < openMillis) {
+                rejected.increment();
+                return null;
+            }
+            transition(State.HALF_OPEN);
+            probesInFlight = 0;
+            probeSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= probes) {
+                rejected.increment();
+                return null;
+            }
+            probesInFlight++;
+        }
+        return new Permit(generation);
+    }
+
+    public synchronized void onSuccess(Permit permit) {
+        if (isStale(permit)) return;
+        if (state == State.HALF_OPEN) {
+            probesInFlight--;
+            if (++probeSuccesses >= probes) {
+                transition(State.CLOSED);
+                consecutiveFailures = 0;
+            }
+            return;
+        }
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void onFailure(Permit permit) {
+        if (isStale(permit)) return;
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    // A permitted call that was never made (e.g. rejected by the bulkhead) gives its probe slot back
+    public synchronized void onIgnored(Permit permit) {
+        if (isStale(permit)) return;
+        if (state == State.HALF_OPEN && probesInFlight > 0) probesInFlight--;
+    }
+
+    private boolean isStale(Permit permit) {
+        return permit == null || permit.generation() != generation;
+    }
+
+    private void transition(State next) {
+        state = next;
+        generation++;
+    }
+
+    /**
+     * Millis until an open circuit lets a probe through; 0 if calls may be attempted now.
+     */
+    public synchronized long retryAfterMillis() {
+        if (state != State.OPEN) return 0;
+        return Math.max(0, openMillis - (System.currentTimeMillis() - openedAtMillis));
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAtMillis = System.currentTimeMillis();
+        consecutiveFailures = 0;
+        probesInFlight = 0;
+        opened.increment();
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("state", state.name());
+        out.put("consecutiveFailures", consecutiveFailures);
+        out.put("retryAfterMillis", state == State.OPEN
+                ? Math.max(0, openMillis - (System.currentTimeMillis() - openedAtMillis)) : 0);
+        out.put("opened", opened.sum());
+        out.put("rejected", rejected.sum());
+        return out;
+    }
+}
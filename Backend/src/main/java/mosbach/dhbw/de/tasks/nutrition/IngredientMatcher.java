@@ -0,0 +1,65 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps a raw ingredient name onto one of a fixed set of canonical keys, in this order:
+ * EXACT (same stem), COMPOUND (a canonical stem ends the name, e.g. "Hühnereier" -> "ei", "frische Sahne" -> "sahne"),
+ * TRIGRAM (closest spelling above the threshold). Pure computation, thread-safe.
+ */
+public final class IngredientMatcher {
+
+    public enum Method { EXACT, COMPOUND, TRIGRAM }
+
+    public record Match(String canonical, Method method, double score) { }
+
+    // A compound needs a real prefix in front of the matched stem ("brei" must not become "ei")
+    private static final int MIN_COMPOUND_PREFIX = 3;
+
+    private final Map<String, String> canonicalByStem = new HashMap<>();
+    private final TrigramIndex index;
+    private final double minTrigramScore;
+    private final int maxStemLength;
+
+    public IngredientMatcher(List<String> canonicalKeys, double minTrigramScore) {
+        int longest = 0;
+        for (String key : canonicalKeys) {
+            String stem = IngredientNames.stem(IngredientNames.fold(key));
+            if (stem.isEmpty()) continue;
+            canonicalByStem.putIfAbsent(stem, key);
+            longest = Math.max(longest, stem.length());
+        }
+        this.maxStemLength = longest;
+        this.index = new TrigramIndex(new ArrayList<>(canonicalByStem.keySet()));
+        this.minTrigramScore = minTrigramScore;
+    }
+
+    public int size() {
+        return canonicalByStem.size();
+    }
+
+    // null if nothing matches well enough
+    public Match match(String raw) {
+        String stem = IngredientNames.stem(IngredientNames.fold(raw));
+        if (stem.isEmpty()) return null;
+
+        String exact = canonicalByStem.get(stem);
+        if (exact != null) return new Match(exact, Method.EXACT, 1.0);
+
+        // Longest canonical stem that ends the name, at a word boundary or after a compound prefix
+        for (int start = Math.max(1, stem.length() - maxStemLength); start < stem.length(); start++) {
+            String suffix = stem.substring(start);
+            String canonical = canonicalByStem.get(suffix);
+            if (canonical == null) continue;
+            if (stem.charAt(start - 1) == ' ' || start >= MIN_COMPOUND_PREFIX) {
+                return new Match(canonical, Method.COMPOUND, (double) suffix.length() / stem.length());
+            }
+        }
+
+        TrigramIndex.Match t = index.best(stem, minTrigramScore);
+        return t == null ? null : new Match(canonicalByStem.get(t.term()), Method.TRIGRAM, t.score());
+    }
+}
@@ -0,0 +1,73 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import java.util.Locale;
+
+/**
+ * Spelling normalization for free-text ingredient names.
+ * fold(): lower case, umlauts and ß spelled out (ä -> ae, ß -> ss), anything but letters/digits becomes a single space.
+ * stem(): strips one common German inflection suffix per word ("Tomaten" and "Tomate" -> "tomat", "Eier" -> "ei").
+ */
+public final class IngredientNames {
+
+    private static final String[] SUFFIXES = {"ern", "en", "er", "e", "n", "s"};
+    private static final int MIN_STEM = 2;
+    // Plural -s is rare in German (mostly loanwords); short words like "Reis" keep it
+    private static final int MIN_STEM_BEFORE_S = 4;
+
+    private IngredientNames() {
+    }
+
+    public static String fold(String raw) {
+        if (raw == null) return "";
+        String lower = raw.toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(lower.length() + 4);
+        boolean pendingSpace = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            String replacement = switch (c) {
+                case 'ä' -> "ae";
+                case 'ö' -> "oe";
+                case 'ü' -> "ue";
+                case 'ß' -> "ss";
+                case 'é', 'è', 'ê' -> "e";
+                case 'á', 'à', 'â' -> "a";
+                default -> null;
+            };
+            if (replacement == null && !Character.isLetterOrDigit(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            if (replacement != null) sb.append(replacement);
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    public static String stem(String folded) {
+        if (folded.isEmpty()) return folded;
+        StringBuilder out = new StringBuilder(folded.length());
+        int start = 0;
+        while (start <= folded.length()) {
+            int end = folded.indexOf(' ', start);
+            if (end < 0) end = folded.length();
+            if (out.length() > 0) out.append(' ');
+            out.append(stemWord(folded.substring(start, end)));
+            start = end + 1;
+        }
+        return out.toString();
+    }
+
+    private static String stemWord(String word) {
+        for (String suffix : SUFFIXES) {
+            int minStem = suffix.equals("s") ? MIN_STEM_BEFORE_S : MIN_STEM;
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= minStem) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+}
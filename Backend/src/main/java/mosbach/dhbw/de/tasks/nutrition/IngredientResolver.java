@@ -0,0 +1,140 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import mosbach.dhbw.de.tasks.cache.ExpiringCache;
+import mosbach.dhbw.de.tasks.persistence.entity.IngredientAliasEntity;
+import mosbach.dhbw.de.tasks.persistence.repo.IngredientAliasRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resolves free-text ingredient names ("Eier", "eier ", "Hühnereier") to canonical ingredient keys.
+ * Each distinct folded spelling is matched once: results are kept in memory and in ingredient_alias,
+ * and rows in ingredient_alias win over the matcher (manual corrections).
+ * New aliases are written in their own short transaction with insert-if-absent: resolve() is called from recipe
+ * transactions (also read-only ones), and a conflicting alias insert must never fail or roll back the recipe.
+ */
+@Component
+public class IngredientResolver {
+
+    private static final Logger LOG = Logger.getLogger(IngredientResolver.class.getName());
+    // ExpiringCache has no null values; remembers spellings that did not resolve
+    private static final String UNRESOLVED = "";
+    private static final int MAX_ALIAS_LENGTH = 200;
+
+    private final IngredientAliasRepository aliasRepo;
+    private final TransactionTemplate aliasTx;
+    private final NutrientTable nutrientTable;
+    private final double minTrigramScore;
+    private final ExpiringCache<String, String> resolved;
+    private final Duration ttl;
+
+    private volatile IngredientMatcher matcher;
+
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder matched = new LongAdder();
+    private final LongAdder unresolved = new LongAdder();
+
+    public IngredientResolver(
+            IngredientAliasRepository aliasRepo,
+            NutrientTable nutrientTable,
+            PlatformTransactionManager transactionManager,
+            @Value("${mealy.ingredients.resolver.minTrigramScore:0.65}") double minTrigramScore,
+            @Value("${mealy.ingredients.resolver.cacheMaxEntries:50000}") int cacheMaxEntries,
+            @Value("${mealy.ingredients.resolver.cacheTtlMinutes:1440}") long cacheTtlMinutes
+    ) {
+        this.aliasRepo = aliasRepo;
+        this.aliasTx = new TransactionTemplate(transactionManager);
+        this.aliasTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nutrientTable = nutrientTable;
+        this.minTrigramScore = minTrigramScore;
+        this.resolved = new ExpiringCache<>(cacheMaxEntries);
+        this.ttl = Duration.ofMinutes(cacheTtlMinutes);
+    }
+
+    /**
+     * Canonical key for the name, or null if it does not resolve.
+     */
+    public String resolve(String rawName) {
+        String folded = IngredientNames.fold(rawName);
+        if (folded.isEmpty()) return null;
+
+        String cached = resolved.get(folded);
+        if (cached != null) return cached.isEmpty() ? null : cached;
+
+        String canonical = lookupOrMatch(folded);
+        resolved.put(folded, canonical != null ? canonical : UNRESOLVED, ttl);
+        return canonical;
+    }
+
+    // Canonical key if resolvable, the folded spelling otherwise; stable input for cache keys
+    public String canonicalOrFolded(String rawName) {
+        String canonical = resolve(rawName);
+        return canonical != null ? canonical : IngredientNames.fold(rawName);
+    }
+
+    private String lookupOrMatch(String folded) {
+        try {
+            IngredientAliasEntity alias = aliasRepo.findById(folded).orElse(null);
+            if (alias != null) return alias.getCanonicalKey();
+        } catch (DataAccessException e) {
+            LOG.log(Level.WARNING, "ingredient_alias nicht lesbar", e);
+        }
+
+        IngredientMatcher m = matcher();
+        IngredientMatcher.Match match = m != null ? m.match(folded) : null;
+        if (match == null) {
+            // Not persisted: a later, larger nutrient table may know it
+            unresolved.increment();
+            return null;
+        }
+        matched.increment();
+
+        persist(folded, match);
+        return match.canonical();
+    }
+
+    // Best effort: the alias is only a shortcut for the next lookup, the match is returned either way
+    private void persist(String folded, IngredientMatcher.Match match) {
+        if (folded.length() > MAX_ALIAS_LENGTH) return;
+        try {
+            Integer inserted = aliasTx.execute(status -> aliasRepo.insertIfAbsent(
+                    folded, match.canonical(), match.method().name(), match.score()));
+            if (inserted != null && inserted > 0) persisted.increment();
+        } catch (RuntimeException e) {
+            // DataAccessException, TransactionException, or the request deadline has passed
+            LOG.log(Level.WARNING, "ingredient_alias nicht schreibbar", e);
+        }
+    }
+
+    // Built on first use, after the nutrient table is mapped
+    private IngredientMatcher matcher() {
+        IngredientMatcher m = matcher;
+        if (m == null && nutrientTable.get() != null) {
+            m = new IngredientMatcher(nutrientTable.canonicalKeys(), minTrigramScore);
+            matcher = m;
+        }
+        return m;
+    }
+
+    public Map<String, Object> getStats() {
+        IngredientMatcher m = matcher;
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("canonicalKeys", m != null ? m.size() : 0);
+        out.put("matched", matched.sum());
+        out.put("unresolved", unresolved.sum());
+        out.put("persisted", persisted.sum());
+        out.put("cache", resolved.stats());
+        return out;
+    }
+}
@@ -0,0 +1,75 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import mosbach.dhbw.de.tasks.model.NutritionConv;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionLane;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Computes nutrition offline by summing per-100 g vectors from the bundled nutrient table.
+ * Ingredient names are mapped to table keys by the IngredientResolver.
+ * Answers only if every ingredient with an amount resolves; otherwise the remote API is asked.
+ */
+@Component
+@Order(0)
+public class LocalNutritionProvider implements NutritionProvider {
+
+    private final NutrientTable nutrientTable;
+    private final IngredientResolver resolver;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public LocalNutritionProvider(NutrientTable nutrientTable, IngredientResolver resolver) {
+        this.nutrientTable = nutrientTable;
+        this.resolver = resolver;
+    }
+
+    @Override
+    public CompletableFuture<NutritionConv> lookup(List<String> names, List<Double> amounts, NutritionLane lane) {
+        return CompletableFuture.completedFuture(compute(names, amounts));
+    }
+
+    /**
+     * The recipe's totals, or null if the table is unavailable or an ingredient does not resolve.
+     */
+    public NutritionConv compute(List<String> names, List<Double> amounts) {
+        NutrientTableFile t = nutrientTable.get();
+        if (t == null) return null;
+
+        double[] totals = new double[NutrientTableFile.NUTRIENTS];
+        for (int i = 0; i < names.size(); i++) {
+            double grams = amounts.get(i) != null ? amounts.get(i) : 0.0;
+            if (grams <= 0) continue; // contributes nothing, known or not
+            String key = resolver.resolve(names.get(i));
+            if (key == null || !t.addTo(key, grams / 100.0, totals)) {
+                misses.increment();
+                return null;
+            }
+        }
+        hits.increment();
+        return new NutritionConv(totals[0], totals[1], totals[2], totals[3], totals[4],
+                totals[5], totals[6], totals[7], totals[8]);
+    }
+
+    public Map<String, Object> getStats() {
+        NutrientTableFile t = nutrientTable.get();
+        long h = hits.sum();
+        long m = misses.sum();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", nutrientTable.isEnabled());
+        out.put("entries", t != null ? t.size() : 0);
+        out.put("file", nutrientTable.getFile().toString());
+        out.put("hits", h);
+        out.put("misses", m);
+        out.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        out.put("resolver", resolver.getStats());
+        return out;
+    }
+}
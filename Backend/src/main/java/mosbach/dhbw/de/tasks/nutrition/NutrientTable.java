@@ -0,0 +1,66 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The bundled nutrient table (classpath nutrition/nutrients.csv, per 100 g), compiled once into a
+ * memory-mapped file. Its names are the canonical ingredient keys.
+ */
+@Component
+public class NutrientTable {
+
+    private static final Logger LOG = Logger.getLogger(NutrientTable.class.getName());
+    private static final String CSV = "nutrition/nutrients.csv";
+
+    private final boolean enabled;
+    private final Path file;
+    private volatile NutrientTableFile table;
+
+    public NutrientTable(
+            @Value("${mealy.nutrition.local.enabled:true}") boolean enabled,
+            @Value("${mealy.nutrition.local.file:${java.io.tmpdir}/mealy-nutrients.bin}") String file
+    ) {
+        this.enabled = enabled;
+        this.file = Path.of(file);
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) return;
+        try (InputStream csv = new ClassPathResource(CSV).getInputStream()) {
+            table = NutrientTableFile.openOrCompile(file, csv);
+            LOG.info("Local nutrient table: " + table.size() + " entries mapped from " + file);
+        } catch (IOException e) {
+            // Not fatal: every lookup falls through to the remote API
+            LOG.log(Level.WARNING, "Lokale Nährwerttabelle nicht verfügbar", e);
+        }
+    }
+
+    // null while disabled or unavailable
+    public NutrientTableFile get() {
+        return table;
+    }
+
+    public List<String> canonicalKeys() {
+        NutrientTableFile t = table;
+        return t != null ? t.names() : List.of();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,219 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Read-only nutrient table in a memory-mapped, fixed-width binary file.
+ * <p>
+ * Layout (big endian): a header of magic, version, record count, record size and the SHA-256 of the
+ * source CSV, followed by records sorted by name bytes. A record is the UTF-8 name (zero-padded to
+ * {@value #NAME_BYTES} bytes) and {@value #NUTRIENTS} floats per 100 g in NutritionConv order.
+ * Lookups are a binary search over the mapping, so the table costs no heap and no parsing after the first start.
+ */
+public final class NutrientTableFile {
+
+    public static final int NUTRIENTS = 9;
+    static final int NAME_BYTES = 48;
+    static final int RECORD_BYTES = NAME_BYTES + NUTRIENTS * Float.BYTES;
+
+    private static final int MAGIC = 0x4D4E5554; // "MNUT"
+    private static final int VERSION = 1;
+    private static final int HASH_BYTES = 32;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + HASH_BYTES;
+
+    private final MappedByteBuffer map;
+    private final int count;
+
+    private NutrientTableFile(MappedByteBuffer map, int count) {
+        this.map = map;
+        this.count = count;
+    }
+
+    /**
+     * Maps {@code file}; (re)compiles it from the CSV first if it is missing, unreadable or built from another CSV.
+     */
+    public static NutrientTableFile openOrCompile(Path file, byte[] csv) throws IOException {
+        byte[] hash = sha256(csv);
+        if (!Files.isRegularFile(file) || !hasHash(file, hash)) {
+            compile(file, csv, hash);
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            int count = map.getInt(2 * Integer.BYTES);
+            if (HEADER_BYTES + (long) count * RECORD_BYTES > map.capacity()) {
+                throw new IOException("Truncated nutrient table: " + file);
+            }
+            return new NutrientTableFile(map, count);
+        }
+    }
+
+    public static NutrientTableFile openOrCompile(Path file, InputStream csv) throws IOException {
+        return openOrCompile(file, csv.readAllBytes());
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Adds {@code factor} times the per-100 g vector of {@code name} to {@code totals}.
+     * Names are matched after trim + lower-case. Returns false if the name is not in the table.
+     */
+    public boolean addTo(String name, double factor, double[] totals) {
+        int index = indexOf(normalize(name));
+        if (index < 0) return false;
+        int base = HEADER_BYTES + index * RECORD_BYTES + NAME_BYTES;
+        for (int i = 0; i < NUTRIENTS; i++) {
+            totals[i] += map.getFloat(base + i * Float.BYTES) * factor;
+        }
+        return true;
+    }
+
+    public boolean contains(String name) {
+        return indexOf(normalize(name)) >= 0;
+    }
+
+    // Names of all records, in file order (for building secondary indexes on top of the table)
+    public List<String> names() {
+        List<String> out = new ArrayList<>(count);
+        byte[] buf = new byte[NAME_BYTES];
+        for (int i = 0; i < count; i++) {
+            map.get(HEADER_BYTES + i * RECORD_BYTES, buf);
+            int len = 0;
+            while (len < NAME_BYTES && buf[len] != 0) len++;
+            out.add(new String(buf, 0, len, StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    public static String normalize(String name) {
+        return name == null ? "" : name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private int indexOf(String normalized) {
+        byte[] key = normalized.getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0 || key.length > NAME_BYTES) return -1;
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compareName(mid, key);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    // Absolute reads only: the mapping is shared by all threads
+    private int compareName(int index, byte[] key) {
+        int base = HEADER_BYTES + index * RECORD_BYTES;
+        for (int i = 0; i < NAME_BYTES; i++) {
+            int a = map.get(base + i) & 0xFF;
+            int b = i < key.length ? key[i] & 0xFF : 0;
+            if (a != b) return a - b;
+            if (a == 0) return 0;
+        }
+        return 0;
+    }
+
+    private static boolean hasHash(Path file, byte[] hash) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && ch.read(header) >= 0) { }
+            if (header.hasRemaining()) return false;
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) return false;
+            header.getInt();
+            if (header.getInt() != RECORD_BYTES) return false;
+            byte[] stored = new byte[HASH_BYTES];
+            header.get(stored);
+            return Arrays.equals(stored, hash);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private record Row(byte[] name, float[] values) { }
+
+    private static void compile(Path file, byte[] csv, byte[] hash) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(csv), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank() || line.startsWith("#")) continue;
+                String[] cols = line.split(";");
+                if (cols.length != NUTRIENTS + 1) {
+                    throw new IOException("Nutrient CSV line " + lineNo + ": expected " + (NUTRIENTS + 1) + " columns");
+                }
+                byte[] name = normalize(cols[0]).getBytes(StandardCharsets.UTF_8);
+                if (name.length == 0 || name.length > NAME_BYTES) {
+                    throw new IOException("Nutrient CSV line " + lineNo + ": name empty or longer than " + NAME_BYTES + " bytes");
+                }
+                float[] values = new float[NUTRIENTS];
+                for (int i = 0; i < NUTRIENTS; i++) {
+                    values[i] = Float.parseFloat(cols[i + 1].trim());
+                }
+                rows.add(new Row(name, values));
+            }
+        }
+        rows.sort((a, b) -> Arrays.compareUnsigned(a.name(), b.name()));
+        for (int i = 1; i < rows.size(); i++) {
+            if (Arrays.equals(rows.get(i - 1).name(), rows.get(i).name())) {
+                throw new IOException("Duplicate nutrient name: " + new String(rows.get(i).name(), StandardCharsets.UTF_8));
+            }
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + rows.size() * RECORD_BYTES).order(ByteOrder.BIG_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(rows.size()).putInt(RECORD_BYTES).put(hash);
+        for (Row row : rows) {
+            buf.put(row.name());
+            buf.put(new byte[NAME_BYTES - row.name().length]);
+            for (float v : row.values()) buf.putFloat(v);
+        }
+        buf.flip();
+
+        // Write next to the target and rename, so a concurrent reader never maps a half-written file
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent() != null ? file.getParent() : Path.of("."), "nutrients", ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+/**
+ * Nutrition API answered with a non-2xx status or an unreadable body.
+ */
+public class NutritionApiException extends RuntimeException {
+
+    private final int statusCode;
+
+    public NutritionApiException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public NutritionApiException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = -1;
+    }
+
+    // -1 if no response was received
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
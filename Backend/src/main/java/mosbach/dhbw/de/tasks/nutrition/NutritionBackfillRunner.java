@@ -0,0 +1,54 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import mosbach.dhbw.de.tasks.data.impl.NutritionBackfillManager;
+import mosbach.dhbw.de.tasks.data.impl.NutritionJobManager;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionLane;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Feeds the nutrition backfill into the outbox at the pace the worker drains it:
+ * a new chunk is enqueued only while fewer than {@code maxQueuedBulk} BULK jobs are waiting.
+ * Enrichment itself (parallelism, quota, retries) is the NutritionEnrichmentWorker's job.
+ */
+@Component
+public class NutritionBackfillRunner {
+
+    private static final Logger LOG = Logger.getLogger(NutritionBackfillRunner.class.getName());
+
+    private final NutritionBackfillManager backfill;
+    private final NutritionJobManager jobs;
+    private final int chunkSize;
+    private final int maxQueuedBulk;
+
+    public NutritionBackfillRunner(
+            NutritionBackfillManager backfill,
+            NutritionJobManager jobs,
+            @Value("${mealy.nutrition.backfill.chunkSize:100}") int chunkSize,
+            @Value("${mealy.nutrition.backfill.maxQueuedBulk:200}") int maxQueuedBulk
+    ) {
+        this.backfill = backfill;
+        this.jobs = jobs;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxQueuedBulk = Math.max(this.chunkSize, maxQueuedBulk);
+    }
+
+    @Scheduled(initialDelay = 30000, fixedDelayString = "${mealy.nutrition.backfill.pollMillis:5000}")
+    public void tick() {
+        try {
+            if (!backfill.isRunning()) return;
+            if (jobs.countQueued(NutritionLane.BULK) >= maxQueuedBulk) return;
+
+            int enqueued = backfill.runChunk(chunkSize);
+            if (enqueued == 0) {
+                LOG.info("Nutrition backfill finished");
+            }
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Nährwert-Backfill: Durchlauf fehlgeschlagen", e);
+        }
+    }
+}
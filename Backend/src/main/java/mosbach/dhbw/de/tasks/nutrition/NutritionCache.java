@@ -0,0 +1,178 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import mosbach.dhbw.de.tasks.cache.ExpiringCache;
+import mosbach.dhbw.de.tasks.model.NutritionConv;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionCacheEntity;
+import mosbach.dhbw.de.tasks.persistence.repo.NutritionCacheRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Two-tier cache for nutrition API results: an in-memory LRU in front of the shared nutrition_cache table.
+ * Keyed by the ingredient list in canonical form, so the same ingredients in a different order,
+ * spelling case or amount notation ("100" vs "100.0") share one API call.
+ * Cache failures never fail a lookup; they count as a miss.
+ */
+@Component
+public class NutritionCache {
+
+    private static final Logger LOG = Logger.getLogger(NutritionCache.class.getName());
+
+    private final NutritionCacheRepository repo;
+    private final ExpiringCache<String, NutritionConv> local;
+    private final Duration localTtl;
+    private final Duration sharedTtl;
+
+    private final LongAdder sharedHits = new LongAdder();
+    private final LongAdder sharedMisses = new LongAdder();
+    private final LongAdder sharedErrors = new LongAdder();
+
+    public NutritionCache(
+            NutritionCacheRepository repo,
+            @Value("${mealy.nutrition.cache.maxEntries:5000}") int maxEntries,
+            @Value("${mealy.nutrition.cache.localTtlMinutes:60}") long localTtlMinutes,
+            @Value("${mealy.nutrition.cache.sharedTtlDays:30}") long sharedTtlDays
+    ) {
+        this.repo = repo;
+        this.local = new ExpiringCache<>(maxEntries);
+        this.localTtl = Duration.ofMinutes(localTtlMinutes);
+        this.sharedTtl = Duration.ofDays(sharedTtlDays);
+    }
+
+    /**
+     * Canonical key: names trimmed, lower-cased and whitespace-collapsed, amounts in plain decimal form,
+     * pairs summed per name and sorted. The nutrition totals do not depend on ingredient order.
+     */
+    public static String keyOf(List<String> names, List<Double> amounts) {
+        TreeMap<String, Double> canonical = new TreeMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i) == null ? "" : names.get(i).trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            double amount = amounts.get(i) != null ? amounts.get(i) : 0.0;
+            canonical.merge(name, amount, Double::sum);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        canonical.forEach((name, amount) -> sb
+                .append(name).append('\u0000')
+                .append(BigDecimal.valueOf(amount).stripTrailingZeros().toPlainString()).append('\n'));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public NutritionConv get(String key) {
+        NutritionConv hit = local.get(key);
+        if (hit != null) return copyOf(hit);
+
+        try {
+            NutritionCacheEntity row = repo.findByCacheKeyAndExpiresAtAfter(key, Instant.now()).orElse(null);
+            if (row == null) {
+                sharedMisses.increment();
+                return null;
+            }
+            sharedHits.increment();
+            NutritionConv value = fromRow(row);
+            local.put(key, value, localExpiry(row.getExpiresAt()));
+            return copyOf(value);
+        } catch (DataAccessException e) {
+            sharedErrors.increment();
+            LOG.log(Level.WARNING, "Nährwert-Cache (DB) nicht lesbar", e);
+            return null;
+        }
+    }
+
+    public void put(String key, NutritionConv value) {
+        if (key == null || value == null) return;
+        Instant expiresAt = Instant.now().plus(sharedTtl);
+        NutritionConv stored = copyOf(value);
+        local.put(key, stored, localExpiry(expiresAt));
+
+        try {
+            NutritionCacheEntity row = new NutritionCacheEntity();
+            row.setCacheKey(key);
+            row.setCaloriesKcal(stored.getCaloriesKcal());
+            row.setTotalFatG(stored.getTotalFatG());
+            row.setSaturatedFatG(stored.getSaturatedFatG());
+            row.setCholesterolMg(stored.getCholesterolMg());
+            row.setSodiumMg(stored.getSodiumMg());
+            row.setTotalCarbohydratesG(stored.getTotalCarbohydratesG());
+            row.setDietaryFiberG(stored.getDietaryFiberG());
+            row.setSugarsG(stored.getSugarsG());
+            row.setProteinG(stored.getProteinG());
+            row.setExpiresAt(expiresAt);
+            repo.save(row); // merge: inserts or refreshes an existing key
+        } catch (DataAccessException e) {
+            sharedErrors.increment();
+            LOG.log(Level.WARNING, "Nährwert-Cache (DB) nicht schreibbar", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mealy.nutrition.cache.purgeMillis:3600000}", initialDelay = 60000)
+    public void purgeExpired() {
+        try {
+            int removed = repo.deleteExpired(Instant.now());
+            if (removed > 0) LOG.info("Removed " + removed + " expired nutrition cache rows");
+        } catch (DataAccessException e) {
+            LOG.log(Level.WARNING, "Nährwert-Cache: Aufräumen fehlgeschlagen", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> localStats = local.stats();
+        long hits = sharedHits.sum();
+        long misses = sharedMisses.sum();
+
+        Map<String, Object> shared = new LinkedHashMap<>();
+        shared.put("hits", hits);
+        shared.put("misses", misses);
+        shared.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        shared.put("errors", sharedErrors.sum());
+
+        // Overall: every lookup starts at L1, only L1 misses reach the table
+        long lookups = ((Number) localStats.get("hits")).longValue() + ((Number) localStats.get("misses")).longValue();
+        long served = ((Number) localStats.get("hits")).longValue() + hits;
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("local", localStats);
+        out.put("shared", shared);
+        out.put("hitRatio", lookups == 0 ? 0.0 : (double) served / lookups);
+        return out;
+    }
+
+    // L1 entries never outlive the L2 row they came from
+    private long localExpiry(Instant sharedExpiry) {
+        return Math.min(System.currentTimeMillis() + localTtl.toMillis(), sharedExpiry.toEpochMilli());
+    }
+
+    private static NutritionConv fromRow(NutritionCacheEntity r) {
+        return new NutritionConv(r.getCaloriesKcal(), r.getTotalFatG(), r.getSaturatedFatG(), r.getCholesterolMg(),
+                r.getSodiumMg(), r.getTotalCarbohydratesG(), r.getDietaryFiberG(), r.getSugarsG(), r.getProteinG());
+    }
+
+    // NutritionConv is mutable, so the cache never hands out its own instances
+    private static NutritionConv copyOf(NutritionConv n) {
+        return new NutritionConv(n.getCaloriesKcal(), n.getTotalFatG(), n.getSaturatedFatG(), n.getCholesterolMg(),
+                n.getSodiumMg(), n.getTotalCarbohydratesG(), n.getDietaryFiberG(), n.getSugarsG(), n.getProteinG());
+    }
+}
@@ -0,0 +1,211 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import mosbach.dhbw.de.tasks.model.NutritionAnswer;
+import mosbach.dhbw.de.tasks.model.NutritionConv;
+import mosbach.dhbw.de.tasks.web.RequestDeadline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP client for the nutrition API. One shared java.net.http.HttpClient, so connections
+ * (HTTP/2 where the server supports it) are reused across calls.
+ * Calls pass a circuit breaker (fails fast while the API is down) and a bulkhead
+ * (caps concurrent outbound calls); rejected calls fail with {@link NutritionUnavailableException}.
+ */
+@Component
+public class NutritionClient {
+
+    private final HttpClient httpClient;
+    private final ObjectReader answerReader;
+    private final ObjectWriter payloadWriter;
+
+    private final URI apiUri;
+    private final String apiKey;
+    private final String apiHost;
+    private final long readTimeoutMillis;
+
+    private final CircuitBreaker breaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrentCalls;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder bulkheadRejected = new LongAdder();
+
+    public NutritionClient(
+            ObjectMapper objectMapper,
+            @Value("${mealy.nutrition.api.url:https://gustar-io-deutsche-rezepte.p.rapidapi.com/nutrition}") String apiUrl,
+            @Value("${mealy.nutrition.api.key:}") String apiKey,
+            @Value("${mealy.nutrition.api.host:gustar-io-deutsche-rezepte.p.rapidapi.com}") String apiHost,
+            @Value("${mealy.nutrition.api.connectTimeoutMillis:3000}") long connectTimeoutMillis,
+            @Value("${mealy.nutrition.api.readTimeoutMillis:10000}") long readTimeoutMillis,
+            @Value("${mealy.nutrition.api.breaker.failureThreshold:5}") int breakerFailureThreshold,
+            @Value("${mealy.nutrition.api.breaker.openSeconds:30}") long breakerOpenSeconds,
+            @Value("${mealy.nutrition.api.breaker.probes:1}") int breakerProbes,
+            @Value("${mealy.nutrition.api.maxConcurrentCalls:4}") int maxConcurrentCalls
+    ) {
+        this.answerReader = objectMapper.readerFor(NutritionAnswer.class);
+        this.payloadWriter = objectMapper.writer();
+        this.apiUri = URI.create(apiUrl);
+        this.apiKey = apiKey;
+        this.apiHost = apiHost;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.breaker = new CircuitBreaker(breakerFailureThreshold, breakerOpenSeconds * 1000, breakerProbes);
+        this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+        this.bulkhead = new Semaphore(this.maxConcurrentCalls);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(Math.max(1, connectTimeoutMillis)))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    /**
+     * Millis until the circuit lets calls through again; 0 if a call may be attempted now.
+     */
+    public long retryAfterMillis() {
+        return breaker.retryAfterMillis();
+    }
+
+    /**
+     * Request body for the API; built with Jackson so names with quotes or umlauts stay valid JSON.
+     */
+    public String payloadOf(List<String> names, List<Double> amounts) {
+        if (names.size() != amounts.size()) {
+            throw new IllegalArgumentException("Beide Listen müssen die gleiche Länge haben.");
+        }
+        List<Map<String, Object>> ingredients = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            Map<String, Object> ingredient = new LinkedHashMap<>();
+            ingredient.put("name", names.get(i));
+            ingredient.put("amount", amounts.get(i));
+            ingredient.put("unit", "grams");
+            ingredients.add(ingredient);
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("ingredients", ingredients);
+        payload.put("portions", 1);
+        try {
+            return payloadWriter.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Nutrition payload not serializable", e);
+        }
+    }
+
+    /**
+     * Posts the payload without blocking the caller. The response timeout is capped to the
+     * caller's request deadline, if any. Completes exceptionally with {@link NutritionUnavailableException}
+     * if the call was not attempted, with {@link NutritionApiException} on non-2xx answers and with
+     * the transport exception (e.g. HttpTimeoutException) otherwise.
+     * Completes with null if the API key is not configured or the answer has no nutritional values.
+     */
+    public CompletableFuture<NutritionConv> fetchAsync(String payloadJson) {
+        if (!isConfigured()) return CompletableFuture.completedFuture(null);
+
+        long timeout = RequestDeadline.capMillis(readTimeoutMillis);
+        if (timeout <= 0) {
+            return CompletableFuture.failedFuture(new NutritionApiException(-1, "No time budget left for the nutrition API"));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(apiUri)
+                .timeout(Duration.ofMillis(timeout))
+                .header("x-rapidapi-key", apiKey)
+                .header("x-rapidapi-host", apiHost)
+                .header("Content-Type", "application/json; charset=UTF-8")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payloadJson, StandardCharsets.UTF_8))
+                .build();
+
+        CircuitBreaker.Permit permit = breaker.tryAcquire();
+        if (permit == null) {
+            return CompletableFuture.failedFuture(
+                    new NutritionUnavailableException("Nutrition API circuit is open", breaker.retryAfterMillis()));
+        }
+        if (!bulkhead.tryAcquire()) {
+            breaker.onIgnored(permit);
+            bulkheadRejected.increment();
+            return CompletableFuture.failedFuture(
+                    new NutritionUnavailableException("Too many concurrent nutrition API calls", 1000));
+        }
+
+        requests.increment();
+        CompletableFuture<NutritionConv> call;
+        try {
+            call = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenApply(this::parse);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        return call.whenComplete((result, error) -> {
+            bulkhead.release();
+            if (error == null) {
+                breaker.onSuccess(permit);
+                return;
+            }
+            failures.increment();
+            if (countsAsOutage(error)) breaker.onFailure(permit);
+            else breaker.onSuccess(permit); // the API answered, it just did not like this request
+        });
+    }
+
+    // Timeouts, connection errors, 5xx and 429 mean the API is unhealthy; other 4xx are our fault
+    private static boolean countsAsOutage(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof NutritionApiException api && api.getStatusCode() > 0) {
+            return api.getStatusCode() >= 500 || api.getStatusCode() == 429;
+        }
+        return true;
+    }
+
+    private NutritionConv parse(HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status < 200 || status >= 300) {
+            throw new NutritionApiException(status, "Fehlerhafte API-Antwort: Code " + status);
+        }
+        try {
+            NutritionAnswer answer = answerReader.readValue(response.body());
+            return answer != null ? answer.getNutritionalValues() : null;
+        } catch (IOException e) {
+            throw new CompletionException(new NutritionApiException("Unreadable nutrition API response", e));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("configured", isConfigured());
+        out.put("requests", requests.sum());
+        out.put("failures", failures.sum());
+        out.put("inFlight", maxConcurrentCalls - bulkhead.availablePermits());
+        out.put("maxConcurrentCalls", maxConcurrentCalls);
+        out.put("bulkheadRejected", bulkheadRejected.sum());
+        out.put("circuitBreaker", breaker.stats());
+        return out;
+    }
+}
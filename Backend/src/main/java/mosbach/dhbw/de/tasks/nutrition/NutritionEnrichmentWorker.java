@@ -0,0 +1,188 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import mosbach.dhbw.de.tasks.data.impl.NutritionJobManager;
+import mosbach.dhbw.de.tasks.data.impl.NutritionJobManager.ClaimedJob;
+import mosbach.dhbw.de.tasks.data.impl.RecipeManager;
+import mosbach.dhbw.de.tasks.model.NutritionConv;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionLane;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Drains the nutrition_job outbox: claims due jobs, calls the nutrition API without holding
+ * a DB connection, then stores the values or schedules a retry.
+ * INTERACTIVE jobs are claimed first; BULK jobs only as far as the quota can serve the metered calls they need.
+ * Only ingredients without a stored share are looked up; within one poll each ingredient is looked up once.
+ * How many calls run at once is up to NutritionScheduler (bulkhead-sized queue), not the wave size.
+ */
+@Component
+public class NutritionEnrichmentWorker {
+
+    private static final Logger LOG = Logger.getLogger(NutritionEnrichmentWorker.class.getName());
+    private static final Duration BULK_QUOTA_DEFER = Duration.ofMinutes(1);
+
+    private final NutritionJobManager jobs;
+    private final RecipeManager recipeManager;
+    private final NutritionScheduler nutritionScheduler;
+    private final NutritionEventHub events;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int bulkBatchSize;
+    private final Duration lease;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private volatile long lastRunAtMillis;
+
+    public NutritionEnrichmentWorker(
+            NutritionJobManager jobs,
+            RecipeManager recipeManager,
+            NutritionScheduler nutritionScheduler,
+            NutritionEventHub events,
+            @Value("${mealy.nutrition.worker.enabled:true}") boolean enabled,
+            @Value("${mealy.nutrition.worker.batchSize:4}") int batchSize,
+            @Value("${mealy.nutrition.worker.bulkBatchSize:20}") int bulkBatchSize,
+            @Value("${mealy.nutrition.worker.leaseSeconds:120}") long leaseSeconds
+    ) {
+        this.jobs = jobs;
+        this.recipeManager = recipeManager;
+        this.nutritionScheduler = nutritionScheduler;
+        this.events = events;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.bulkBatchSize = Math.max(0, bulkBatchSize);
+        this.lease = Duration.ofSeconds(Math.max(1, leaseSeconds));
+    }
+
+    @Scheduled(
+            initialDelayString = "${mealy.nutrition.worker.pollMillis:2000}",
+            fixedDelayString = "${mealy.nutrition.worker.pollMillis:2000}"
+    )
+    public void poll() {
+        if (!enabled) return;
+        // No early exit on an open circuit: the local table may still answer; API-bound jobs are deferred
+        lastRunAtMillis = System.currentTimeMillis();
+        try {
+            List<ClaimedJob> claimed = new ArrayList<>(jobs.claim(NutritionLane.INTERACTIVE, batchSize, lease));
+            Set<String> meteredCalls = new HashSet<>();
+            for (ClaimedJob job : claimed) {
+                meteredCalls.addAll(recipeManager.meteredLookupKeys(job.ingredients()));
+            }
+            claimBulk(claimed, meteredCalls);
+
+            // Waves of batchSize recipes, interactive first; lookups of the same ingredient are shared.
+            // Failed lookups are removed from the map by completion callbacks, hence the concurrent map.
+            Map<String, CompletableFuture<NutritionConv>> perIngredient = new ConcurrentHashMap<>();
+            for (int i = 0; i < claimed.size(); i += batchSize) {
+                List<ClaimedJob> wave = claimed.subList(i, Math.min(claimed.size(), i + batchSize));
+                List<CompletableFuture<List<NutritionConv>>> lookups = new ArrayList<>(wave.size());
+                for (ClaimedJob job : wave) {
+                    lookups.add(recipeManager.lookupBreakdownAsync(job.ingredients(), job.lane(), perIngredient));
+                }
+                for (int j = 0; j < wave.size(); j++) {
+                    process(wave.get(j), lookups.get(j));
+                }
+            }
+        } catch (RuntimeException e) {
+            // e.g. DB unavailable; the next poll tries again
+            LOG.log(Level.WARNING, "Nährwert-Worker: Durchlauf fehlgeschlagen", e);
+        }
+    }
+
+    /**
+     * Adds BULK jobs while the BULK quota covers the metered calls they add on top of {@code meteredCalls}
+     * (ingredients already counted are shared). Jobs that do not fit go back to the queue for a minute.
+     */
+    private void claimBulk(List<ClaimedJob> claimed, Set<String> meteredCalls) {
+        if (bulkBatchSize == 0) return;
+        int spare = nutritionScheduler.bulkCapacity(Integer.MAX_VALUE) - meteredCalls.size();
+        if (spare <= 0) return;
+
+        for (ClaimedJob job : jobs.claim(NutritionLane.BULK, bulkBatchSize, lease)) {
+            Set<String> added = recipeManager.meteredLookupKeys(job.ingredients());
+            added.removeAll(meteredCalls);
+            if (added.size() > spare) {
+                jobs.defer(job, BULK_QUOTA_DEFER);
+                deferred.incrementAndGet();
+                continue;
+            }
+            spare -= added.size();
+            meteredCalls.addAll(added);
+            claimed.add(job);
+        }
+    }
+
+    private void process(ClaimedJob job, CompletableFuture<List<NutritionConv>> lookup) {
+        List<NutritionConv> shares;
+        try {
+            shares = lookup.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof NutritionUnavailableException unavailable) {
+                jobs.defer(job, Duration.ofMillis(Math.max(1000, unavailable.getRetryAfterMillis())));
+                deferred.incrementAndGet();
+            } else {
+                giveUpOrRetry(job, cause.toString(), false);
+            }
+            return;
+        }
+
+        if (shares.contains(null)) {
+            // Not in the local table and no API key: retrying can never succeed
+            if (!recipeManager.isNutritionApiConfigured()) {
+                giveUpOrRetry(job, "Unknown ingredients and nutrition API key not configured", true);
+            } else {
+                giveUpOrRetry(job, "Nutrition API returned no result", false);
+            }
+            return;
+        }
+        if (jobs.complete(job, shares)) {
+            completed.incrementAndGet();
+            events.publish(job.ownerEmail(), job.recipeId(), NutritionStatus.COMPLETE);
+        }
+    }
+
+    private void giveUpOrRetry(ClaimedJob job, String error, boolean permanent) {
+        if (jobs.retryOrFail(job, error, permanent)) {
+            failed.incrementAndGet();
+            events.publish(job.ownerEmail(), job.recipeId(), NutritionStatus.FAILED);
+            LOG.warning("Nährwerte für Rezept " + job.recipeId() + " aufgegeben: " + error);
+        } else {
+            retried.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", enabled);
+        out.put("queued", jobs.countQueued());
+        out.put("queuedInteractive", jobs.countQueued(NutritionLane.INTERACTIVE));
+        out.put("queuedBulk", jobs.countQueued(NutritionLane.BULK));
+        out.put("due", jobs.countDue());
+        out.put("completed", completed.get());
+        out.put("retried", retried.get());
+        out.put("failed", failed.get());
+        out.put("deferred", deferred.get());
+        out.put("lastRunAtMillis", lastRunAtMillis);
+        return out;
+    }
+}
@@ -0,0 +1,285 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import jakarta.annotation.PreDestroy;
+import mosbach.dhbw.de.tasks.cache.ExpiringCache;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pushes "nutrition" events (COMPLETE/FAILED) to the owner's open SSE streams.
+ * Streams are async requests, so an idle stream holds a socket but no thread. Publishing only appends to the
+ * stream's bounded buffer (oldest events are dropped when full); a small sender pool does the writes, at most one
+ * task per stream, so a slow client never blocks the nutrition worker. Streams are in-memory per instance.
+ * Browsers open streams with a short-lived, single-use ticket (EventSource cannot send headers, and the JWT
+ * must not end up in a URL, i.e. in access logs and browser history).
+ * Heartbeats run on the hub's own thread, not on the shared Spring scheduler, so a long worker or backfill run
+ * cannot delay them past the proxies' idle timeout.
+ */
+@Component
+public class NutritionEventHub {
+
+    private static final Logger LOG = Logger.getLogger(NutritionEventHub.class.getName());
+
+    private final Map<String, Set<Stream>> streamsByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+    private final SecureRandom random = new SecureRandom();
+    private final ExpiringCache<String, String> ticketOwners;
+    private final Duration ticketTtl;
+
+    private final boolean enabled;
+    private final int maxStreams;
+    private final int maxStreamsPerUser;
+    private final int bufferSize;
+    private final long heartbeatMillis;
+    private final long timeoutMillis;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public NutritionEventHub(
+            @Value("${mealy.events.enabled:true}") boolean enabled,
+            @Value("${mealy.events.maxStreams:10000}") int maxStreams,
+            @Value("${mealy.events.maxStreamsPerUser:5}") int maxStreamsPerUser,
+            @Value("${mealy.events.bufferSize:32}") int bufferSize,
+            @Value("${mealy.events.heartbeatMillis:15000}") long heartbeatMillis,
+            @Value("${mealy.events.timeoutMinutes:30}") long timeoutMinutes,
+            @Value("${mealy.events.senderThreads:2}") int senderThreads,
+            @Value("${mealy.events.ticketTtlSeconds:30}") long ticketTtlSeconds
+    ) {
+        this.enabled = enabled;
+        this.maxStreams = Math.max(0, maxStreams);
+        this.maxStreamsPerUser = Math.max(1, maxStreamsPerUser);
+        this.bufferSize = Math.max(1, bufferSize);
+        this.heartbeatMillis = Math.max(1000, heartbeatMillis);
+        this.timeoutMillis = Math.max(1, timeoutMinutes) * 60_000L;
+        this.ticketOwners = new ExpiringCache<>(Math.max(1, this.maxStreams));
+        this.ticketTtl = Duration.ofSeconds(Math.max(1, ticketTtlSeconds));
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), r -> {
+            Thread t = new Thread(r, "sse-sender-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sse-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        this.heartbeats.scheduleWithFixedDelay(this::heartbeat, this.heartbeatMillis, this.heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Ticket for one subscribe() of the (already authenticated) user, valid for ticketTtl
+    public String issueTicket(String email) {
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        ticketOwners.put(ticket, email, ticketTtl);
+        return ticket;
+    }
+
+    // Owner of the ticket, null if unknown or expired; a ticket can be redeemed once
+    public String redeemTicket(String ticket) {
+        if (ticket == null || ticket.isBlank()) return null;
+        return ticketOwners.invalidate(ticket);
+    }
+
+    public long getTicketTtlSeconds() {
+        return ticketTtl.toSeconds();
+    }
+
+    /**
+     * Opens a stream for the user, or returns null if the stream limits are reached (or events are disabled).
+     * The browser's EventSource reconnects on its own after the timeout.
+     */
+    public SseEmitter subscribe(String email) {
+        if (!enabled || email == null) return null;
+        if (open.incrementAndGet() > maxStreams) {
+            open.decrementAndGet();
+            rejected.increment();
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Stream stream = new Stream(email, emitter);
+        Set<Stream> userStreams = streamsByUser.compute(email, (k, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            if (set.size() < maxStreamsPerUser) set.add(stream);
+            return set;
+        });
+        if (!userStreams.contains(stream)) {
+            open.decrementAndGet();
+            rejected.increment();
+            return null;
+        }
+
+        emitter.onCompletion(() -> remove(stream));
+        emitter.onTimeout(() -> remove(stream));
+        emitter.onError(e -> remove(stream));
+
+        // First write commits the response headers; the reconnect delay keeps retries of dropped streams calm
+        stream.offer(SseEmitter.event().comment("connected").reconnectTime(heartbeatMillis));
+        return emitter;
+    }
+
+    // Called by the nutrition worker after the recipe's transaction has committed
+    public void publish(String email, long recipeId, NutritionStatus status) {
+        if (email == null) return;
+        Set<Stream> userStreams = streamsByUser.get(email);
+        if (userStreams == null || userStreams.isEmpty()) return;
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("recipeId", recipeId);
+        data.put("nutritionStatus", status.name());
+        published.increment();
+        for (Stream stream : userStreams) {
+            stream.offer(SseEmitter.event()
+                    .id(Long.toString(eventIds.incrementAndGet()))
+                    .name("nutrition")
+                    .data(data, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    // Comment line on streams that were quiet for a heartbeat interval; detects dead clients and keeps proxies from closing idle streams
+    private void heartbeat() {
+        try {
+            long idleSince = System.currentTimeMillis() - heartbeatMillis;
+            for (Set<Stream> userStreams : streamsByUser.values()) {
+                for (Stream stream : userStreams) {
+                    if (stream.lastWriteAtMillis <= idleSince) {
+                        stream.offer(SseEmitter.event().comment("hb"));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the fixed-delay task for good
+            LOG.log(Level.WARNING, "SSE heartbeat failed", e);
+        }
+    }
+
+    private void remove(Stream stream) {
+        if (!stream.closed.compareAndSet(false, true)) return;
+        open.decrementAndGet();
+        streamsByUser.computeIfPresent(stream.email, (k, set) -> {
+            set.remove(stream);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("enabled", enabled);
+        out.put("openStreams", open.get());
+        out.put("users", streamsByUser.size());
+        out.put("published", published.sum());
+        out.put("sent", sent.sum());
+        out.put("dropped", dropped.sum());
+        out.put("rejectedStreams", rejected.sum());
+        return out;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        for (Set<Stream> userStreams : streamsByUser.values()) {
+            for (Stream stream : userStreams) {
+                stream.emitter.complete();
+            }
+        }
+    }
+
+    private final class Stream {
+
+        private final String email;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEventBuilder> buffer = new ArrayDeque<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile long lastWriteAtMillis = System.currentTimeMillis();
+
+        private Stream(String email, SseEmitter emitter) {
+            this.email = email;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEventBuilder event) {
+            if (closed.get()) return;
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst(); // client too slow: the newest state matters more than the oldest event
+                    dropped.increment();
+                }
+                buffer.addLast(event);
+            }
+            scheduleSend();
+        }
+
+        private void scheduleSend() {
+            if (!sending.compareAndSet(false, true)) return;
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                sending.set(false); // shutting down
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed.get()) {
+                    SseEventBuilder next;
+                    synchronized (buffer) {
+                        next = buffer.pollFirst();
+                    }
+                    if (next == null) break;
+                    emitter.send(next);
+                    lastWriteAtMillis = System.currentTimeMillis();
+                    sent.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client gone (or emitter already completed): the emitter callbacks do not fire for failed sends
+                remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                sending.set(false);
+            }
+            // An event may have arrived between the last poll and releasing the flag
+            boolean more;
+            synchronized (buffer) {
+                more = !buffer.isEmpty();
+            }
+            if (more && !closed.get()) scheduleSend();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import mosbach.dhbw.de.tasks.model.NutritionConv;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionLane;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Source of recipe nutrition totals. Amounts are grams (see NutritionClient.payloadOf), one portion.
+ * Providers are tried in @Order; a provider that cannot answer completes with null, so the next one is asked.
+ */
+public interface NutritionProvider {
+
+    CompletableFuture<NutritionConv> lookup(List<String> names, List<Double> amounts, NutritionLane lane);
+}
@@ -0,0 +1,227 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import mosbach.dhbw.de.tasks.model.NutritionConv;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionLane;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spends the metered nutrition API quota (RapidAPI plan) per priority lane.
+ * Every outbound call needs a permit from the per-minute and the per-day window (UTC day).
+ * The last {@code bulkReserve} share of the daily quota is kept for INTERACTIVE lookups,
+ * so BULK work is shed first as the quota runs out.
+ * At most maxConcurrentCalls (the client's bulkhead) calls run at once; further calls wait in a bounded queue,
+ * INTERACTIVE before BULK, so a recipe with many unknown ingredients is queued instead of rejected.
+ * The permit is taken when a call is actually sent, not when it is queued: a backlog never exceeds the
+ * per-minute window it is sent in, and calls failed by an open circuit spend no quota.
+ * Counters are per instance: with several instances, split the plan's quota between them.
+ */
+@Component
+public class NutritionScheduler {
+
+    private final NutritionClient client;
+
+    private record PendingCall(NutritionLane lane, String payloadJson, CompletableFuture<NutritionConv> result) { }
+
+    private final int perMinute;
+    private final int perDay;
+    private final int bulkDailyLimit;
+
+    private long minuteWindow;
+    private int usedThisMinute;
+    private LocalDate day;
+    private int usedToday;
+
+    private final int maxConcurrentCalls;
+    private final int maxQueuedCalls;
+    private int running;
+    private final Map<NutritionLane, ArrayDeque<PendingCall>> queues = new EnumMap<>(NutritionLane.class);
+
+    private final Map<NutritionLane, LongAdder> granted = new EnumMap<>(NutritionLane.class);
+    private final Map<NutritionLane, LongAdder> throttled = new EnumMap<>(NutritionLane.class);
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder queueRejected = new LongAdder();
+
+    public NutritionScheduler(
+            NutritionClient client,
+            @Value("${mealy.nutrition.quota.perMinute:0}") int perMinute,
+            @Value("${mealy.nutrition.quota.perDay:0}") int perDay,
+            @Value("${mealy.nutrition.quota.bulkReserve:0.2}") double bulkReserve,
+            @Value("${mealy.nutrition.api.maxQueuedCalls:200}") int maxQueuedCalls
+    ) {
+        this.client = client;
+        this.maxConcurrentCalls = client.getMaxConcurrentCalls();
+        this.maxQueuedCalls = Math.max(0, maxQueuedCalls);
+        this.perMinute = perMinute;
+        this.perDay = perDay;
+        double reserve = Math.min(1.0, Math.max(0.0, bulkReserve));
+        this.bulkDailyLimit = (int) Math.floor(perDay * (1.0 - reserve));
+        for (NutritionLane lane : NutritionLane.values()) {
+            granted.put(lane, new LongAdder());
+            throttled.put(lane, new LongAdder());
+            queues.put(lane, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Calls the API if the lane still has quota, right away or once a running call finishes; otherwise fails
+     * with {@link NutritionUnavailableException} carrying the time until quota (or queue space) is available again.
+     * A queued call can still fail that way if the quota or the circuit runs out before it is sent.
+     */
+    public CompletableFuture<NutritionConv> submit(NutritionLane lane, String payloadJson) {
+        if (!client.isConfigured()) return CompletableFuture.completedFuture(null);
+        // Fail fast instead of queueing calls that cannot be sent right now
+        NutritionUnavailableException refused = refusal(lane, false);
+        if (refused != null) return CompletableFuture.failedFuture(refused);
+
+        PendingCall call = new PendingCall(lane, payloadJson, new CompletableFuture<>());
+        synchronized (this) {
+            if (running >= maxConcurrentCalls) {
+                if (queuedCalls() >= maxQueuedCalls) {
+                    queueRejected.increment();
+                    return CompletableFuture.failedFuture(new NutritionUnavailableException("Too many queued nutrition API calls", 1000));
+                }
+                queues.get(lane).addLast(call);
+                return call.result();
+            }
+            running++;
+        }
+        start(call);
+        return call.result();
+    }
+
+    // Takes the permit just before sending; a call that gets none fails and its slot goes to the next queued one
+    private void start(PendingCall call) {
+        while (call != null) {
+            NutritionUnavailableException refused = refusal(call.lane(), true);
+            if (refused == null) {
+                PendingCall sent = call;
+                client.fetchAsync(sent.payloadJson()).whenComplete((result, error) -> {
+                    PendingCall next = nextOrRelease();
+                    if (next != null) start(next);
+                    if (error != null) sent.result().completeExceptionally(error);
+                    else sent.result().complete(result);
+                });
+                return;
+            }
+            call.result().completeExceptionally(refused);
+            call = nextOrRelease();
+        }
+    }
+
+    // The finishing call hands its slot to the next queued one (INTERACTIVE first), or frees it
+    private synchronized PendingCall nextOrRelease() {
+        PendingCall next = queues.get(NutritionLane.INTERACTIVE).pollFirst();
+        if (next == null) next = queues.get(NutritionLane.BULK).pollFirst();
+        if (next == null) running--;
+        return next;
+    }
+
+    // null if the call may go out; with acquire the permit is taken
+    private NutritionUnavailableException refusal(NutritionLane lane, boolean acquire) {
+        // An open circuit rejects anyway; do not spend quota on it
+        long circuitRetry = client.retryAfterMillis();
+        if (circuitRetry > 0) return new NutritionUnavailableException("Nutrition API circuit is open", circuitRetry);
+        long retryAfter = tryAcquire(lane, acquire);
+        if (retryAfter > 0) return new NutritionUnavailableException("Nutrition API quota exhausted for " + lane, retryAfter);
+        return null;
+    }
+
+    private int queuedCalls() {
+        int n = 0;
+        for (ArrayDeque<PendingCall> q : queues.values()) n += q.size();
+        return n;
+    }
+
+    /**
+     * How many metered BULK calls could be started right now without hitting a quota window.
+     * Queued calls have no permit yet but will take one, so they count as used.
+     */
+    public synchronized int bulkCapacity(int wanted) {
+        roll(System.currentTimeMillis());
+        int capacity = wanted;
+        int queued = queuedCalls();
+        if (perMinute > 0) capacity = Math.min(capacity, perMinute - usedThisMinute - queued);
+        if (perDay > 0) capacity = Math.min(capacity, bulkDailyLimit - usedToday - queued);
+        return Math.max(0, capacity);
+    }
+
+    // 0 = permit granted (or, without acquire, available), otherwise millis until the lane may try again
+    private synchronized long tryAcquire(NutritionLane lane, boolean acquire) {
+        long now = System.currentTimeMillis();
+        roll(now);
+
+        if (perDay > 0) {
+            int dailyLimit = lane == NutritionLane.BULK ? bulkDailyLimit : perDay;
+            if (usedToday >= dailyLimit) {
+                if (lane == NutritionLane.BULK) shed.increment();
+                throttled.get(lane).increment();
+                return millisUntilNextDay(now);
+            }
+        }
+        if (perMinute > 0 && usedThisMinute >= perMinute) {
+            throttled.get(lane).increment();
+            return Math.max(1, (minuteWindow + 1) * 60_000 - now);
+        }
+        if (!acquire) return 0;
+
+        usedThisMinute++;
+        usedToday++;
+        granted.get(lane).increment();
+        return 0;
+    }
+
+    private void roll(long now) {
+        long window = now / 60_000;
+        if (window != minuteWindow) {
+            minuteWindow = window;
+            usedThisMinute = 0;
+        }
+        LocalDate today = Instant.ofEpochMilli(now).atZone(ZoneOffset.UTC).toLocalDate();
+        if (!today.equals(day)) {
+            day = today;
+            usedToday = 0;
+        }
+    }
+
+    private static long millisUntilNextDay(long now) {
+        LocalDate today = Instant.ofEpochMilli(now).atZone(ZoneOffset.UTC).toLocalDate();
+        long nextDay = today.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        return Math.max(1, nextDay - now);
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        roll(System.currentTimeMillis());
+        Map<String, Object> lanes = new LinkedHashMap<>();
+        for (NutritionLane lane : NutritionLane.values()) {
+            lanes.put(lane.name(), Map.of(
+                    "granted", granted.get(lane).sum(),
+                    "throttled", throttled.get(lane).sum()
+            ));
+        }
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("perMinute", perMinute);
+        out.put("usedThisMinute", usedThisMinute);
+        out.put("perDay", perDay);
+        out.put("usedToday", usedToday);
+        out.put("bulkDailyLimit", perDay > 0 ? bulkDailyLimit : 0);
+        out.put("bulkShed", shed.sum());
+        out.put("running", running);
+        out.put("queued", queuedCalls());
+        out.put("maxQueuedCalls", maxQueuedCalls);
+        out.put("queueRejected", queueRejected.sum());
+        out.put("lanes", lanes);
+        return out;
+    }
+}
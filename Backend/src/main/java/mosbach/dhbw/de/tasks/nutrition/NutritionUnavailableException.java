@@ -0,0 +1,18 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+/**
+ * The nutrition API was not called at all: the circuit is open or the bulkhead is full.
+ */
+public class NutritionUnavailableException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public NutritionUnavailableException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,46 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import java.util.Map;
+
+/**
+ * Typical weight of one piece ("2 Stück Zwiebeln"), keyed by nutrient table name.
+ * Rough averages; anything not listed counts as DEFAULT_GRAMS per piece.
+ */
+public final class PieceWeights {
+
+    public static final double DEFAULT_GRAMS = 100.0;
+
+    private static final Map<String, Double> GRAMS = Map.ofEntries(
+            Map.entry("ei", 60.0),
+            Map.entry("eier", 60.0),
+            Map.entry("kartoffel", 150.0),
+            Map.entry("kartoffeln", 150.0),
+            Map.entry("tomate", 100.0),
+            Map.entry("tomaten", 100.0),
+            Map.entry("zwiebel", 80.0),
+            Map.entry("zwiebeln", 80.0),
+            Map.entry("knoblauch", 4.0), // eine Zehe
+            Map.entry("karotte", 80.0),
+            Map.entry("karotten", 80.0),
+            Map.entry("möhre", 80.0),
+            Map.entry("möhren", 80.0),
+            Map.entry("paprika", 150.0),
+            Map.entry("zucchini", 250.0),
+            Map.entry("gurke", 400.0),
+            Map.entry("apfel", 150.0),
+            Map.entry("äpfel", 150.0),
+            Map.entry("banane", 120.0),
+            Map.entry("bananen", 120.0),
+            Map.entry("zitrone", 80.0),
+            Map.entry("hähnchenbrust", 150.0),
+            Map.entry("brot", 50.0) // eine Scheibe
+    );
+
+    private PieceWeights() {
+    }
+
+    public static double gramsPerPiece(String canonicalName) {
+        if (canonicalName == null) return DEFAULT_GRAMS;
+        return GRAMS.getOrDefault(canonicalName, DEFAULT_GRAMS);
+    }
+}
@@ -0,0 +1,28 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import mosbach.dhbw.de.tasks.model.NutritionConv;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionLane;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Fallback: the metered nutrition API, through quota, circuit breaker and bulkhead
+@Component
+@Order(100)
+public class RemoteNutritionProvider implements NutritionProvider {
+
+    private final NutritionClient client;
+    private final NutritionScheduler scheduler;
+
+    public RemoteNutritionProvider(NutritionClient client, NutritionScheduler scheduler) {
+        this.client = client;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public CompletableFuture<NutritionConv> lookup(List<String> names, List<Double> amounts, NutritionLane lane) {
+        return scheduler.submit(lane, client.payloadOf(names, amounts));
+    }
+}
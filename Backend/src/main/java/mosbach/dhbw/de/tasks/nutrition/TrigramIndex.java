@@ -0,0 +1,76 @@
+package mosbach.dhbw.de.tasks.nutrition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-memory trigram index over a fixed set of terms.
+ * best() returns the term with the highest Dice coefficient (2|A∩B| / (|A|+|B|)) over padded trigrams.
+ * Thread-safe after construction.
+ */
+public final class TrigramIndex {
+
+    public record Match(String term, double score) { }
+
+    private final List<String> terms;
+    private final int[] trigramCounts;
+    private final Map<String, int[]> postings;
+
+    public TrigramIndex(List<String> terms) {
+        this.terms = List.copyOf(terms);
+        this.trigramCounts = new int[this.terms.size()];
+        Map<String, List<Integer>> build = new HashMap<>();
+        for (int i = 0; i < this.terms.size(); i++) {
+            Set<String> grams = trigrams(this.terms.get(i));
+            trigramCounts[i] = grams.size();
+            for (String g : grams) {
+                build.computeIfAbsent(g, k -> new ArrayList<>()).add(i);
+            }
+        }
+        this.postings = new HashMap<>(build.size() * 2);
+        build.forEach((g, ids) -> postings.put(g, ids.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    // null if nothing reaches minScore
+    public Match best(String query, double minScore) {
+        Set<String> grams = trigrams(query);
+        if (grams.isEmpty()) return null;
+
+        int[] shared = new int[terms.size()];
+        for (String g : grams) {
+            int[] ids = postings.get(g);
+            if (ids == null) continue;
+            for (int id : ids) shared[id]++;
+        }
+
+        int bestId = -1;
+        double bestScore = minScore;
+        for (int i = 0; i < shared.length; i++) {
+            if (shared[i] == 0) continue;
+            double score = 2.0 * shared[i] / (grams.size() + trigramCounts[i]);
+            if (score > bestScore || (score == bestScore && bestId < 0)) {
+                bestScore = score;
+                bestId = i;
+            }
+        }
+        return bestId < 0 ? null : new Match(terms.get(bestId), bestScore);
+    }
+
+    static Set<String> trigrams(String s) {
+        Set<String> out = new LinkedHashSet<>();
+        if (s == null || s.isEmpty()) return out;
+        String padded = "  " + s + " ";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            out.add(padded.substring(i, i + 3));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,56 @@
+package mosbach.dhbw.de.tasks.persistence.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Progress of a resumable background job (keyset position + counters), one row per job name.
+ * Updated in the same transaction as the chunk it describes.
+ */
+@Entity
+@Table(name = "backfill_checkpoint")
+public class BackfillCheckpointEntity {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String PAUSED = "PAUSED";
+    public static final String DONE = "DONE";
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    // Highest id already handled; the next chunk starts after it
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getLastId() { return lastId; }
+    public void setLastId(long lastId) { this.lastId = lastId; }
+
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,47 @@
+package mosbach.dhbw.de.tasks.persistence.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Resolved spelling of an ingredient name -> canonical ingredient key (a nutrient table name).
+ * Rows may also be added by hand to pin a spelling the resolver gets wrong.
+ */
+@Entity
+@Table(name = "ingredient_alias")
+public class IngredientAliasEntity {
+
+    // Folded spelling (IngredientNames.fold)
+    @Id
+    @Column(length = 200)
+    private String alias;
+
+    @Column(name = "canonical_key", nullable = false, length = 100)
+    private String canonicalKey;
+
+    // EXACT / COMPOUND / TRIGRAM / MANUAL
+    @Column(nullable = false, length = 20)
+    private String method;
+
+    @Column(nullable = false)
+    private double score;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public String getAlias() { return alias; }
+    public void setAlias(String alias) { this.alias = alias; }
+
+    public String getCanonicalKey() { return canonicalKey; }
+    public void setCanonicalKey(String canonicalKey) { this.canonicalKey = canonicalKey; }
+
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,44 @@
+package mosbach.dhbw.de.tasks.persistence.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.Instant;
+
+/**
+ * Ingredient catalog: one row per normalized name, referenced by recipe_ingredient.ingredient_id.
+ * Lazy references of a recipe are loaded together (BatchSize) instead of one select each.
+ */
+@Entity
+@Table(name = "ingredient")
+@BatchSize(size = 100)
+public class IngredientEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredient_seq")
+    @SequenceGenerator(name = "ingredient_seq", sequenceName = "ingredient_seq", allocationSize = 50)
+    private Long id;
+
+    // Spelling of the first recipe that used the ingredient
+    @Column(nullable = false, length = 200)
+    private String name;
+
+    // IngredientCatalog.keyOf(name): trimmed, whitespace collapsed, lower case
+    @Column(name = "name_key", nullable = false, unique = true, length = 200)
+    private String nameKey;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getNameKey() { return nameKey; }
+    public void setNameKey(String nameKey) { this.nameKey = nameKey; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
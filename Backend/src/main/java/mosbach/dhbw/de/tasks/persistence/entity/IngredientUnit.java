@@ -0,0 +1,118 @@
+package mosbach.dhbw.de.tasks.persistence.entity;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Units an ingredient amount can be given in, each with its factor to the canonical unit of its kind:
+ * g for mass, ml for volume, Stück for counts. EL/TL are the usual German kitchen measures (15 ml / 5 ml).
+ * Only the canonical units G, ML and STUECK are stored (recipe_ingredient.unit_canonical).
+ */
+public enum IngredientUnit {
+
+    G("g", 1),
+    KG("g", 1000),
+    ML("ml", 1),
+    L("ml", 1000),
+    EL("ml", 15),
+    TL("ml", 5),
+    STUECK("Stück", 1);
+
+    /**
+     * An amount converted to its canonical unit, e.g. "1,5" "kg" -> 1500 G.
+     */
+    public record Quantity(double value, IngredientUnit unit) { }
+
+    private static final Map<String, IngredientUnit> ALIASES = new HashMap<>();
+
+    static {
+        alias(G, "g", "gr", "gramm", "gram", "grams");
+        alias(KG, "kg", "kilo", "kilogramm");
+        alias(ML, "ml", "milliliter");
+        alias(L, "l", "liter", "ltr");
+        alias(EL, "el", "essl", "esslöffel", "essloeffel", "tbsp");
+        alias(TL, "tl", "teel", "teelöffel", "teeloeffel", "tsp");
+        alias(STUECK, "stück", "stueck", "stk", "st", "pcs", "piece", "pieces");
+    }
+
+    // "200", "1,5", "1/2", "1 1/2", "2-3" (range: mean), optionally followed by a unit ("200g", "2 EL")
+    private static final Pattern AMOUNT = Pattern.compile(
+            "^(\\d+(?:\\.\\d+)?)(?:\\s+(\\d+)/(\\d+)|/(\\d+)|\\s*-\\s*(\\d+(?:\\.\\d+)?))?\\s*(\\p{L}*)\\.?$");
+
+    private final String canonicalName;
+    private final double factor;
+
+    IngredientUnit(String canonicalName, double factor) {
+        this.canonicalName = canonicalName;
+        this.factor = factor;
+    }
+
+    private static void alias(IngredientUnit unit, String... names) {
+        for (String name : names) ALIASES.put(name, unit);
+    }
+
+    public IngredientUnit canonical() {
+        return switch (canonicalName) {
+            case "g" -> G;
+            case "ml" -> ML;
+            default -> STUECK;
+        };
+    }
+
+    public double getFactor() {
+        return factor;
+    }
+
+    @Override
+    public String toString() {
+        return canonicalName;
+    }
+
+    // null for blank or unknown units ("Prise", "Dose", ...)
+    public static IngredientUnit parseUnit(String unit) {
+        if (unit == null) return null;
+        String u = unit.trim().toLowerCase(Locale.ROOT);
+        if (u.endsWith(".")) u = u.substring(0, u.length() - 1);
+        return ALIASES.get(u);
+    }
+
+    /**
+     * Parses a free-text amount and unit into the canonical unit. A unit written into the amount ("200g") is used
+     * if {@code unit} is blank. Returns null if the amount is not a number; an unknown unit keeps the number as is
+     * with a null unit.
+     */
+    public static Quantity parse(String amount, String unit) {
+        if (amount == null) return null;
+        String a = amount.trim()
+                .replace(',', '.')
+                .replace("½", " 1/2").replace("¼", " 1/4").replace("¾", " 3/4")
+                .trim();
+        Matcher m = AMOUNT.matcher(a);
+        if (!m.matches()) return null;
+
+        double value = Double.parseDouble(m.group(1));
+        if (m.group(2) != null) {
+            value += fraction(m.group(2), m.group(3));
+        } else if (m.group(4) != null) {
+            value = fraction(m.group(1), m.group(4));
+        } else if (m.group(5) != null) {
+            value = (value + Double.parseDouble(m.group(5))) / 2.0;
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) return null;
+
+        IngredientUnit u = parseUnit(unit);
+        if (u == null && (unit == null || unit.isBlank()) && !m.group(6).isEmpty()) {
+            u = parseUnit(m.group(6));
+        }
+        if (u == null) return new Quantity(value, null);
+        return new Quantity(value * u.factor, u.canonical());
+    }
+
+    private static double fraction(String numerator, String denominator) {
+        double d = Double.parseDouble(denominator);
+        return d == 0 ? Double.NaN : Double.parseDouble(numerator) / d;
+    }
+}
@@ -1,20 +1,80 @@
 package mosbach.dhbw.de.tasks.persistence.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import mosbach.dhbw.de.tasks.model.NutritionConv;
 
 @Embeddable
 public class IngredientValue {
 
+    // Catalog entry (see IngredientCatalog); rows saved before the catalog existed keep their name here until migrated
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ingredient_id")
+    private IngredientEntity ingredient;
+
     private String name;
     private String unit;
     private String amount; // bleibt erstmal String wie in IngredientConv
 
+    // Parsed from amount/unit on every change (see IngredientUnit); null if the amount is not a number
+    @Column(name = "amount_value")
+    private Double amountValue;
+
+    // G, ML or STUECK; null if the unit is blank or unknown
+    @Enumerated(EnumType.STRING)
+    @Column(name = "unit_canonical", length = 10)
+    private IngredientUnit unitCanonical;
+
+    // --- This ingredient's share of the recipe totals (null = not computed yet) ---
+    @Column(name = "calories_kcal")
+    private Double caloriesKcal;
+
+    @Column(name = "total_fat_g")
+    private Double totalFatG;
+
+    @Column(name = "saturated_fat_g")
+    private Double saturatedFatG;
+
+    @Column(name = "cholesterol_mg")
+    private Double cholesterolMg;
+
+    @Column(name = "sodium_mg")
+    private Double sodiumMg;
+
+    @Column(name = "total_carbohydrates_g")
+    private Double totalCarbohydratesG;
+
+    @Column(name = "dietary_fiber_g")
+    private Double dietaryFiberG;
+
+    @Column(name = "sugars_g")
+    private Double sugarsG;
+
+    @Column(name = "protein_g")
+    private Double proteinG;
+
     public String getName() {
-        return name;
+        return ingredient != null ? ingredient.getName() : name;
     }
 
+    // Free-text name without a catalog entry; cleared again by setIngredient
     public void setName(String name) {
         this.name = name;
+        this.ingredient = null;
+    }
+
+    public IngredientEntity getIngredient() {
+        return ingredient;
+    }
+
+    public void setIngredient(IngredientEntity ingredient) {
+        this.ingredient = ingredient;
+        this.name = null;
     }
 
     public String getUnit() {
@@ -23,6 +83,7 @@ public class IngredientValue {
 
     public void setUnit(String unit) {
         this.unit = unit;
+        parseQuantity();
     }
 
     public String getAmount() {
@@ -31,5 +92,61 @@ public class IngredientValue {
 
     public void setAmount(String amount) {
         this.amount = amount;
+        parseQuantity();
+    }
+
+    // Amount in unitCanonical
+    public Double getAmountValue() {
+        return amountValue;
+    }
+
+    public IngredientUnit getUnitCanonical() {
+        return unitCanonical;
+    }
+
+    private void parseQuantity() {
+        IngredientUnit.Quantity q = IngredientUnit.parse(amount, unit);
+        amountValue = q != null ? q.value() : null;
+        unitCanonical = q != null ? q.unit() : IngredientUnit.parseUnit(unit);
+        if (unitCanonical != null) unitCanonical = unitCanonical.canonical();
+    }
+
+    public boolean hasNutrition() {
+        return caloriesKcal != null;
+    }
+
+    // null if not computed yet
+    public NutritionConv getNutrition() {
+        if (!hasNutrition()) return null;
+        return new NutritionConv(caloriesKcal, safe0(totalFatG), safe0(saturatedFatG), safe0(cholesterolMg),
+                safe0(sodiumMg), safe0(totalCarbohydratesG), safe0(dietaryFiberG), safe0(sugarsG), safe0(proteinG));
+    }
+
+    public void setNutrition(NutritionConv n) {
+        caloriesKcal = n != null ? n.getCaloriesKcal() : null;
+        totalFatG = n != null ? n.getTotalFatG() : null;
+        saturatedFatG = n != null ? n.getSaturatedFatG() : null;
+        cholesterolMg = n != null ? n.getCholesterolMg() : null;
+        sodiumMg = n != null ? n.getSodiumMg() : null;
+        totalCarbohydratesG = n != null ? n.getTotalCarbohydratesG() : null;
+        dietaryFiberG = n != null ? n.getDietaryFiberG() : null;
+        sugarsG = n != null ? n.getSugarsG() : null;
+        proteinG = n != null ? n.getProteinG() : null;
+    }
+
+    // Detached copy including the nutrition share; the name is copied as text, not as catalog reference
+    public IngredientValue copy() {
+        IngredientValue c = new IngredientValue();
+        c.name = getName();
+        c.unit = unit;
+        c.amount = amount;
+        c.amountValue = amountValue;
+        c.unitCanonical = unitCanonical;
+        c.setNutrition(getNutrition());
+        return c;
+    }
+
+    private static double safe0(Double v) {
+        return v != null ? v : 0.0;
     }
 }
@@ -13,7 +13,8 @@ import jakarta.persistence.*;
 public class MealEntryEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meal_entry_seq")
+    @SequenceGenerator(name = "meal_entry_seq", sequenceName = "meal_entry_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -30,6 +31,9 @@ public class MealEntryEntity {
     @JoinColumn(name = "recipe_id")
     private RecipeEntity recipe; // darf null sein
 
+    @Column(name = "servings")
+    private Integer servings; // null = so viele wie im Rezept
+
     public Long getId() {
         return id;
     }
@@ -69,4 +73,12 @@ public class MealEntryEntity {
     public void setRecipe(RecipeEntity recipe) {
         this.recipe = recipe;
     }
+
+    public Integer getServings() {
+        return servings;
+    }
+
+    public void setServings(Integer servings) {
+        this.servings = servings;
+    }
 }
@@ -0,0 +1,84 @@
+package mosbach.dhbw.de.tasks.persistence.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Second-level nutrition cache, shared by all instances.
+ * Key = SHA-256 of the canonical ingredient list (see NutritionCache.keyOf).
+ */
+@Entity
+@Table(
+        name = "nutrition_cache",
+        indexes = @Index(name = "idx_nutrition_cache_expires_at", columnList = "expires_at")
+)
+public class NutritionCacheEntity {
+
+    @Id
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+
+    @Column(name = "calories_kcal", nullable = false)
+    private double caloriesKcal;
+
+    @Column(name = "total_fat_g", nullable = false)
+    private double totalFatG;
+
+    @Column(name = "saturated_fat_g", nullable = false)
+    private double saturatedFatG;
+
+    @Column(name = "cholesterol_mg", nullable = false)
+    private double cholesterolMg;
+
+    @Column(name = "sodium_mg", nullable = false)
+    private double sodiumMg;
+
+    @Column(name = "total_carbohydrates_g", nullable = false)
+    private double totalCarbohydratesG;
+
+    @Column(name = "dietary_fiber_g", nullable = false)
+    private double dietaryFiberG;
+
+    @Column(name = "sugars_g", nullable = false)
+    private double sugarsG;
+
+    @Column(name = "protein_g", nullable = false)
+    private double proteinG;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(String cacheKey) { this.cacheKey = cacheKey; }
+
+    public double getCaloriesKcal() { return caloriesKcal; }
+    public void setCaloriesKcal(double caloriesKcal) { this.caloriesKcal = caloriesKcal; }
+
+    public double getTotalFatG() { return totalFatG; }
+    public void setTotalFatG(double totalFatG) { this.totalFatG = totalFatG; }
+
+    public double getSaturatedFatG() { return saturatedFatG; }
+    public void setSaturatedFatG(double saturatedFatG) { this.saturatedFatG = saturatedFatG; }
+
+    public double getCholesterolMg() { return cholesterolMg; }
+    public void setCholesterolMg(double cholesterolMg) { this.cholesterolMg = cholesterolMg; }
+
+    public double getSodiumMg() { return sodiumMg; }
+    public void setSodiumMg(double sodiumMg) { this.sodiumMg = sodiumMg; }
+
+    public double getTotalCarbohydratesG() { return totalCarbohydratesG; }
+    public void setTotalCarbohydratesG(double totalCarbohydratesG) { this.totalCarbohydratesG = totalCarbohydratesG; }
+
+    public double getDietaryFiberG() { return dietaryFiberG; }
+    public void setDietaryFiberG(double dietaryFiberG) { this.dietaryFiberG = dietaryFiberG; }
+
+    public double getSugarsG() { return sugarsG; }
+    public void setSugarsG(double sugarsG) { this.sugarsG = sugarsG; }
+
+    public double getProteinG() { return proteinG; }
+    public void setProteinG(double proteinG) { this.proteinG = proteinG; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,123 @@
+package mosbach.dhbw.de.tasks.persistence.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Outbox row for a recipe whose nutrition values still have to be fetched.
+ * Written in the same transaction as the recipe, deleted once the recipe is COMPLETE or FAILED.
+ */
+@Entity
+@Table(
+        name = "nutrition_job",
+        indexes = @Index(name = "idx_nutrition_job_lane_next_attempt_at", columnList = "lane, next_attempt_at")
+)
+public class NutritionJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "nutrition_job_seq")
+    @SequenceGenerator(name = "nutrition_job_seq", sequenceName = "nutrition_job_seq", allocationSize = 50)
+    private Long id;
+
+    // Plain id (no FK): deleting a recipe must never be blocked by its job, the worker drops orphans
+    @Column(name = "recipe_id", nullable = false, unique = true)
+    private Long recipeId;
+
+    // Default keeps ddl-auto=update working on tables that already have rows
+    @Enumerated(EnumType.STRING)
+    @Column(name = "lane", nullable = false, columnDefinition = "varchar(20) default 'INTERACTIVE' not null")
+    private NutritionLane lane = NutritionLane.INTERACTIVE;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    // Lease of the worker that claimed the job; an expired lease makes the job claimable again
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
+    // Bumped when the recipe's ingredients change while the job is queued; a worker holding an older revision discards its result
+    @Column(name = "revision", nullable = false, columnDefinition = "integer default 0 not null")
+    private int revision = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRecipeId() {
+        return recipeId;
+    }
+
+    public void setRecipeId(Long recipeId) {
+        this.recipeId = recipeId;
+    }
+
+    public NutritionLane getLane() {
+        return lane;
+    }
+
+    public void setLane(NutritionLane lane) {
+        this.lane = lane;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(Instant lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public int getRevision() {
+        return revision;
+    }
+
+    public void setRevision(int revision) {
+        this.revision = revision;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
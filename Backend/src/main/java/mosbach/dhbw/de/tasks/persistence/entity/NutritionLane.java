@@ -0,0 +1,7 @@
+package mosbach.dhbw.de.tasks.persistence.entity;
+
+// Priority lane of a nutrition lookup; INTERACTIVE always goes before BULK (backfill, re-enrichment)
+public enum NutritionLane {
+    INTERACTIVE,
+    BULK
+}
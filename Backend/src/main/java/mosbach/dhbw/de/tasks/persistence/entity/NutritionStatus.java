@@ -0,0 +1,8 @@
+package mosbach.dhbw.de.tasks.persistence.entity;
+
+// Lifecycle of a recipe's nutrition columns; null on recipes saved before the enrichment worker existed
+public enum NutritionStatus {
+    PENDING,
+    COMPLETE,
+    FAILED
+}
@@ -1,6 +1,8 @@
 package mosbach.dhbw.de.tasks.persistence.entity;
 
 import jakarta.persistence.*;
+import mosbach.dhbw.de.tasks.model.NutritionConv;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,8 +10,10 @@ import java.util.List;
 @Table(name = "recipe")
 public class RecipeEntity {
 
+    // Pooled sequence (50 ids per nextval, synced by DataMigrations): unlike IDENTITY it lets Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipe_seq")
+    @SequenceGenerator(name = "recipe_seq", sequenceName = "recipe_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -54,11 +58,25 @@ public class RecipeEntity {
     @Column(name = "protein_g")
     private Double proteinG;
 
+    // Ingredient amounts and nutrition totals are for this many servings; default keeps ddl-auto=update working on old rows
+    @Column(name = "servings", nullable = false, columnDefinition = "integer default 1 not null")
+    private int servings = 1;
+
+    // Filled asynchronously by the nutrition worker (see nutrition_job)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "nutrition_status", length = 20)
+    private NutritionStatus nutritionStatus;
+
+    // Rows are addressed by (recipe_id, ingredient_index): a change updates only that row instead of
+    // deleting and re-inserting the whole list. The default lets the column be added to existing rows
+    // (positions are backfilled by DataMigrations).
     @ElementCollection
     @CollectionTable(
             name = "recipe_ingredient",
-            joinColumns = @JoinColumn(name = "recipe_id")
+            joinColumns = @JoinColumn(name = "recipe_id"),
+            indexes = @Index(name = "idx_recipe_ingredient_ingredient_id", columnList = "ingredient_id")
     )
+    @OrderColumn(name = "ingredient_index", columnDefinition = "integer default 0 not null")
     private List<IngredientValue> ingredients = new ArrayList<>();
 
     public Long getId() {
@@ -135,4 +153,41 @@ public class RecipeEntity {
 
     public Double getProteinG() { return proteinG; }
     public void setProteinG(Double proteinG) { this.proteinG = proteinG; }
+
+    public int getServings() { return servings; }
+    public void setServings(int servings) { this.servings = servings; }
+
+    public NutritionStatus getNutritionStatus() { return nutritionStatus; }
+    public void setNutritionStatus(NutritionStatus nutritionStatus) { this.nutritionStatus = nutritionStatus; }
+
+    /**
+     * Sets the recipe totals to the sum of the ingredients' shares.
+     * Returns false (and leaves the totals alone) if a share is still missing.
+     */
+    public boolean sumIngredientNutrition() {
+        double[] t = new double[9];
+        for (IngredientValue v : ingredients) {
+            NutritionConv n = v.getNutrition();
+            if (n == null) return false;
+            t[0] += n.getCaloriesKcal();
+            t[1] += n.getTotalFatG();
+            t[2] += n.getSaturatedFatG();
+            t[3] += n.getCholesterolMg();
+            t[4] += n.getSodiumMg();
+            t[5] += n.getTotalCarbohydratesG();
+            t[6] += n.getDietaryFiberG();
+            t[7] += n.getSugarsG();
+            t[8] += n.getProteinG();
+        }
+        caloriesKcal = t[0];
+        totalFatG = t[1];
+        saturatedFatG = t[2];
+        cholesterolMg = t[3];
+        sodiumMg = t[4];
+        totalCarbohydratesG = t[5];
+        dietaryFiberG = t[6];
+        sugarsG = t[7];
+        proteinG = t[8];
+        return true;
+    }
 }
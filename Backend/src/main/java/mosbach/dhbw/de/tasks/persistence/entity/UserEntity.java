@@ -2,12 +2,20 @@ package mosbach.dhbw.de.tasks.persistence.entity;
 
 import jakarta.persistence.*;
 
+import java.util.Locale;
+import java.util.Objects;
+
 @Entity
-@Table(name = "app_user")
+@Table(
+        name = "app_user",
+        // The unique index uq_app_user_email_normalized is created by DataMigrations after the backfill
+        indexes = @Index(name = "idx_app_user_user_name_normalized", columnList = "user_name_normalized")
+)
 public class UserEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_user_seq")
+    @SequenceGenerator(name = "app_user_seq", sequenceName = "app_user_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 80)
@@ -16,10 +24,46 @@ public class UserEntity {
     @Column(nullable = false, unique = true, length = 255)
     private String email;
 
+    // Lower-cased, trimmed copies used for login lookups (nullable only until backfilled)
+    @Column(name = "email_normalized", length = 255)
+    private String emailNormalized;
+
+    @Column(name = "user_name_normalized", length = 80)
+    private String userNameNormalized;
+
     // Hash Password not Plain Text
     @Column(nullable = false, length = 255)
     private String passwordHash;
 
+    // Embedded in every JWT ("tv"); bumping it revokes all tokens issued before
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0 not null")
+    private int tokenVersion = 0;
+
+    // Set by setEmail; Hibernate loads fields directly, so a loaded entity starts with false
+    @Transient
+    private boolean emailChanged;
+
+    @PrePersist
+    void normalizeLookupColumns() {
+        this.emailNormalized = normalize(email);
+        this.userNameNormalized = normalize(userName);
+    }
+
+    /**
+     * email_normalized is only recomputed when the email itself changed: legacy case-duplicate accounts keep null
+     * there (see DataMigrations), and any other update of them must not collide with uq_app_user_email_normalized.
+     */
+    @PreUpdate
+    void normalizeChangedLookupColumns() {
+        if (emailChanged) this.emailNormalized = normalize(email);
+        this.userNameNormalized = normalize(userName);
+        emailChanged = false;
+    }
+
+    public static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
     public Long getId() {
         return id;
     }
@@ -41,6 +85,7 @@ public class UserEntity {
     }
 
     public void setEmail(String email) {
+        if (!Objects.equals(this.email, email)) emailChanged = true;
         this.email = email;
     }
 
@@ -51,4 +96,20 @@ public class UserEntity {
     public void setUserName(String userName) {
         this.userName = userName;
     }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    public String getEmailNormalized() {
+        return emailNormalized;
+    }
+
+    public String getUserNameNormalized() {
+        return userNameNormalized;
+    }
 }
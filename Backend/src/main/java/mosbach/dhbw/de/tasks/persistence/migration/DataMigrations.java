@@ -0,0 +1,234 @@
+package mosbach.dhbw.de.tasks.persistence.migration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import mosbach.dhbw.de.tasks.persistence.entity.IngredientUnit;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Idempotent data backfills that ddl-auto=update cannot do on its own.
+ * Runs once at startup, after Hibernate has updated the schema (hence the EntityManagerFactory
+ * dependency) and before the web server accepts requests.
+ */
+@Component
+public class DataMigrations {
+
+    private static final Logger LOG = Logger.getLogger(DataMigrations.class.getName());
+
+    // Table -> id sequence (see @SequenceGenerator on the entities)
+    private static final Map<String, String> ID_SEQUENCES = Map.of(
+            "app_user", "app_user_seq",
+            "recipe", "recipe_seq",
+            "meal_entry", "meal_entry_seq",
+            "nutrition_job", "nutrition_job_seq",
+            "ingredient", "ingredient_seq"
+    );
+
+    private final JdbcTemplate jdbc;
+
+    public DataMigrations(JdbcTemplate jdbc, EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        run("id sequences", this::syncIdSequences);
+        runRequired("app_user lookup columns", this::backfillUserLookupColumns);
+        run("recipe_ingredient amount_value/unit_canonical", this::backfillIngredientQuantities);
+        run("recipe_ingredient ingredient_id", this::backfillIngredientCatalog);
+        run("recipe_ingredient ingredient_index", this::backfillIngredientPositions);
+    }
+
+    /**
+     * Tables created with IDENTITY ids now draw them from pooled sequences, which Hibernate creates starting at 1.
+     * A sequence that is behind is set to the highest existing id (never moved backwards); Hibernate then
+     * hands out the 50 ids up to each nextval value, so the first new id is max(id) + 1.
+     */
+    private void syncIdSequences() {
+        for (Map.Entry<String, String> e : ID_SEQUENCES.entrySet()) {
+            String table = e.getKey();
+            String sequence = e.getValue();
+            jdbc.queryForList("""
+                    select setval('%2$s', m.max_id)
+                    from (select max(id) as max_id from %1$s) m
+                    where m.max_id >= (select last_value from %2$s)
+                    """.formatted(table, sequence));
+        }
+    }
+
+    /**
+     * Fills the normalized login columns of legacy users, then creates the unique index on email_normalized
+     * (not declared on the entity, so it only exists once the data fits it). Legacy emails that differ only in
+     * case/spaces would collide: only the oldest account of such a group is normalized (that is the one login
+     * finds), the others keep email_normalized = null and are reported for manual cleanup.
+     * Logins depend on these columns, so a failure here stops the startup.
+     */
+    private void backfillUserLookupColumns() {
+        int names = jdbc.update("""
+                update app_user set user_name_normalized = lower(trim(user_name))
+                where user_name_normalized is null
+                """);
+        int emails = jdbc.update("""
+                update app_user u set email_normalized = lower(trim(u.email))
+                where u.email_normalized is null
+                  and u.id = (select min(o.id) from app_user o where lower(trim(o.email)) = lower(trim(u.email)))
+                  and not exists (select 1 from app_user t where t.email_normalized = lower(trim(u.email)))
+                """);
+        if (names + emails > 0) {
+            LOG.info("Backfilled normalized login columns (" + emails + " emails, " + names + " user names)");
+        }
+
+        List<Map<String, Object>> duplicates = jdbc.queryForList(
+                "select id, email from app_user where email_normalized is null order by id");
+        if (!duplicates.isEmpty()) {
+            LOG.severe("Users whose email only differs in case/spaces from an older account, left without "
+                    + "email_normalized (cannot log in by email until merged or renamed): " + duplicates);
+        }
+
+        jdbc.execute("""
+                create unique index if not exists uq_app_user_email_normalized on app_user (email_normalized)
+                """);
+    }
+
+    /**
+     * Parses amount/unit of rows written before the typed columns existed. The result only depends on the two
+     * strings, so each distinct pair is parsed once and written with one update. Rows whose amount is not a number
+     * keep amount_value = null and are looked at again on the next start (cheap: few distinct strings).
+     * Where the unit changes the grams (the old math read every amount as grams), the stored nutrition shares are
+     * dropped and the recipe is queued as a BULK job to be recomputed.
+     */
+    private void backfillIngredientQuantities() {
+        List<Map<String, Object>> pairs = jdbc.queryForList("""
+                select distinct amount, unit from recipe_ingredient
+                where amount_value is null and amount is not null
+                """);
+        int rows = 0;
+        Set<Long> stale = new TreeSet<>();
+        for (Map<String, Object> pair : pairs) {
+            String amount = (String) pair.get("amount");
+            String unit = (String) pair.get("unit");
+            IngredientUnit.Quantity q = IngredientUnit.parse(amount, unit);
+            if (q == null) continue;
+            String canonical = q.unit() != null ? q.unit().name() : null;
+
+            if (q.unit() != IngredientUnit.STUECK && q.value() == legacyGrams(amount)) {
+                rows += jdbc.update("""
+                        update recipe_ingredient set amount_value = ?, unit_canonical = ?
+                        where amount_value is null and amount = ? and unit is not distinct from ?
+                        """, q.value(), canonical, amount, unit);
+            } else {
+                List<Long> recipeIds = jdbc.queryForList("""
+                        update recipe_ingredient set amount_value = ?, unit_canonical = ?,
+                            calories_kcal = null, total_fat_g = null, saturated_fat_g = null, cholesterol_mg = null,
+                            sodium_mg = null, total_carbohydrates_g = null, dietary_fiber_g = null, sugars_g = null,
+                            protein_g = null
+                        where amount_value is null and amount = ? and unit is not distinct from ?
+                        returning recipe_id
+                        """, Long.class, q.value(), canonical, amount, unit);
+                rows += recipeIds.size();
+                stale.addAll(recipeIds);
+            }
+        }
+        if (rows > 0) LOG.info("Backfilled typed amounts for " + rows + " ingredient rows");
+
+        if (!stale.isEmpty()) {
+            List<Object[]> ids = stale.stream().map(id -> new Object[]{id}).toList();
+            jdbc.batchUpdate("update recipe set nutrition_status = 'PENDING' where id = ?", ids);
+            jdbc.batchUpdate("""
+                    insert into nutrition_job (id, recipe_id, lane, attempts, revision, next_attempt_at, created_at)
+                    values (nextval('nutrition_job_seq'), ?, 'BULK', 0, 0, now(), now())
+                    on conflict (recipe_id) do nothing
+                    """, ids);
+            LOG.info("Queued nutrition recompute for " + stale.size() + " recipes with converted units");
+        }
+    }
+
+    /**
+     * Moves free-text names into the ingredient catalog: one row per name key (same normalization as
+     * IngredientCatalog.keyOf), then points the recipe rows at it and drops their copy of the name.
+     */
+    private void backfillIngredientCatalog() {
+        int created = jdbc.update("""
+                insert into ingredient (id, name, name_key, created_at)
+                select nextval('ingredient_seq'), k.name, k.name_key, now()
+                from (
+                    select min(trim(name)) as name, lower(trim(regexp_replace(name, '\\s+', ' ', 'g'))) as name_key
+                    from recipe_ingredient
+                    where ingredient_id is null and name is not null and trim(name) <> ''
+                    group by 2
+                ) k
+                on conflict (name_key) do nothing
+                """);
+        int rows = jdbc.update("""
+                update recipe_ingredient ri
+                set ingredient_id = i.id, name = null
+                from ingredient i
+                where ri.ingredient_id is null and ri.name is not null
+                  and i.name_key = lower(trim(regexp_replace(ri.name, '\\s+', ' ', 'g')))
+                """);
+        if (rows > 0) LOG.info("Linked " + rows + " ingredient rows to the catalog (" + created + " new entries)");
+    }
+
+    /**
+     * The order column was added with default 0, so recipes from before it have all their rows at index 0.
+     * They get 0..n-1 in physical row order (the order the old unordered list was read in), then the
+     * (recipe_id, ingredient_index) key that Hibernate uses to update single rows is enforced by a unique index.
+     */
+    private void backfillIngredientPositions() {
+        int rows = jdbc.update("""
+                update recipe_ingredient ri
+                set ingredient_index = n.idx
+                from (
+                    select ctid, row_number() over (partition by recipe_id order by ctid) - 1 as idx
+                    from recipe_ingredient
+                    where recipe_id in (
+                        select recipe_id from recipe_ingredient
+                        group by recipe_id
+                        having count(*) > 1 and max(ingredient_index) = 0
+                    )
+                ) n
+                where ri.ctid = n.ctid
+                """);
+        if (rows > 0) LOG.info("Backfilled ingredient positions for " + rows + " ingredient rows");
+        jdbc.execute("""
+                create unique index if not exists uq_recipe_ingredient_recipe_id_ingredient_index
+                on recipe_ingredient (recipe_id, ingredient_index)
+                """);
+    }
+
+    // How amounts were read before units were considered
+    private static double legacyGrams(String amount) {
+        try {
+            return Double.parseDouble(amount.trim().replace(",", "."));
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
+    // For backfills the app cannot work without: the startup fails instead of running on half-migrated data
+    private void runRequired(String name, Runnable migration) {
+        try {
+            migration.run();
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Required data migration failed: " + name, e);
+        }
+    }
+
+    // A failing backfill is logged but must not keep the app from starting
+    private void run(String name, Runnable migration) {
+        try {
+            migration.run();
+        } catch (DataAccessException e) {
+            LOG.log(Level.SEVERE, "Data migration failed: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package mosbach.dhbw.de.tasks.persistence.repo;
+
+import mosbach.dhbw.de.tasks.persistence.entity.BackfillCheckpointEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BackfillCheckpointRepository extends JpaRepository<BackfillCheckpointEntity, String> {
+}
@@ -0,0 +1,20 @@
+package mosbach.dhbw.de.tasks.persistence.repo;
+
+import mosbach.dhbw.de.tasks.persistence.entity.IngredientAliasEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface IngredientAliasRepository extends JpaRepository<IngredientAliasEntity, String> {
+
+    // Same spelling resolved concurrently (two requests, or worker and request): the second insert is a no-op
+    @Modifying
+    @Query(value = """
+            insert into ingredient_alias (alias, canonical_key, method, score, created_at)
+            values (:alias, :canonicalKey, :method, :score, now())
+            on conflict (alias) do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("alias") String alias, @Param("canonicalKey") String canonicalKey,
+                       @Param("method") String method, @Param("score") double score);
+}
@@ -0,0 +1,24 @@
+package mosbach.dhbw.de.tasks.persistence.repo;
+
+import mosbach.dhbw.de.tasks.persistence.entity.IngredientEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface IngredientRepository extends JpaRepository<IngredientEntity, Long> {
+
+    @Query("select i.id from IngredientEntity i where i.nameKey = :nameKey")
+    Optional<Long> findIdByNameKey(@Param("nameKey") String nameKey);
+
+    // Concurrent saves of a new ingredient: the loser's insert is a no-op instead of aborting its transaction
+    @Modifying
+    @Query(value = """
+            insert into ingredient (id, name, name_key, created_at)
+            values (nextval('ingredient_seq'), :name, :nameKey, now())
+            on conflict (name_key) do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("nameKey") String nameKey);
+}
@@ -0,0 +1,21 @@
+package mosbach.dhbw.de.tasks.persistence.repo;
+
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionCacheEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface NutritionCacheRepository extends JpaRepository<NutritionCacheEntity, String> {
+
+    Optional<NutritionCacheEntity> findByCacheKeyAndExpiresAtAfter(String cacheKey, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from NutritionCacheEntity c where c.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,41 @@
+package mosbach.dhbw.de.tasks.persistence.repo;
+
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionJobEntity;
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionLane;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface NutritionJobRepository extends JpaRepository<NutritionJobEntity, Long> {
+
+    // Row locks with SKIP LOCKED: several app instances can poll without claiming the same job
+    @Query(value = """
+            select * from nutrition_job
+            where lane = :lane
+              and next_attempt_at <= :now
+              and (locked_until is null or locked_until < :now)
+            order by next_attempt_at
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<NutritionJobEntity> lockDueJobs(@Param("lane") String lane, @Param("now") Instant now, @Param("limit") int limit);
+
+    // Row lock: enqueue() and the worker's complete()/retryOrFail() on the same job run one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<NutritionJobEntity> findForUpdateByRecipeId(Long recipeId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<NutritionJobEntity> findForUpdateById(Long id);
+
+    long countByNextAttemptAtLessThanEqual(Instant now);
+
+    long countByLane(NutritionLane lane);
+
+    long deleteByRecipeId(Long recipeId);
+}
@@ -1,7 +1,12 @@
 package mosbach.dhbw.de.tasks.persistence.repo;
 
+import mosbach.dhbw.de.tasks.persistence.entity.NutritionStatus;
 import mosbach.dhbw.de.tasks.persistence.entity.RecipeEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,4 +20,33 @@ public interface RecipeRepository extends JpaRepository<RecipeEntity, Long> {
     Optional<RecipeEntity> findByIdAndSharedTrue(Long id);
 
     long deleteByOwner_Email(String email);
+
+    // Owner's recipes using a catalog ingredient: index lookup on recipe_ingredient.ingredient_id
+    @Query("""
+            select distinct r from RecipeEntity r join r.ingredients i
+            where r.owner.email = :email and i.ingredient.id = :ingredientId
+            order by r.id
+            """)
+    List<RecipeEntity> findByOwnerEmailAndIngredientId(@Param("email") String email, @Param("ingredientId") long ingredientId);
+
+    // Keyset page of recipes without nutrition values that are not already queued for enrichment
+    @Query("""
+            select r.id from RecipeEntity r
+            where r.id > :afterId
+              and r.caloriesKcal is null
+              and (r.nutritionStatus is null or r.nutritionStatus <> :pending)
+            order by r.id
+            """)
+    List<Long> findIdsMissingNutrition(@Param("afterId") long afterId, @Param("pending") NutritionStatus pending, Pageable page);
+
+    @Query("""
+            select count(r) from RecipeEntity r
+            where r.caloriesKcal is null
+              and (r.nutritionStatus is null or r.nutritionStatus <> :pending)
+            """)
+    long countMissingNutrition(@Param("pending") NutritionStatus pending);
+
+    @Modifying
+    @Query("update RecipeEntity r set r.nutritionStatus = :status where r.id in :ids")
+    int updateNutritionStatus(@Param("ids") List<Long> ids, @Param("status") NutritionStatus status);
 }
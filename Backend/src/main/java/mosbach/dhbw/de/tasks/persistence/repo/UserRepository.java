@@ -2,6 +2,8 @@ package mosbach.dhbw.de.tasks.persistence.repo;
 
 import mosbach.dhbw.de.tasks.persistence.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -9,4 +11,13 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findByEmail(String email);
     Optional<UserEntity> findFirstByUserName(String userName);
     boolean existsByEmail(String email);
+
+    // Login lookups on the indexed, case-normalized columns (see UserEntity.normalize)
+    Optional<UserEntity> findByEmailNormalized(String emailNormalized);
+    Optional<UserEntity> findFirstByUserNameNormalizedOrderByIdAsc(String userNameNormalized);
+    boolean existsByEmailNormalized(String emailNormalized);
+    boolean existsByUserNameNormalized(String userNameNormalized);
+
+    @Query("select u.tokenVersion from UserEntity u where u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
 }
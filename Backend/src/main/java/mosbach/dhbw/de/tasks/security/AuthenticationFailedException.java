@@ -0,0 +1,12 @@
+package mosbach.dhbw.de.tasks.security;
+
+/**
+ * Thrown when a protected endpoint is called without a usable token.
+ * The message is returned to the client as "reason".
+ */
+public class AuthenticationFailedException extends RuntimeException {
+
+    public AuthenticationFailedException(String reason) {
+        super(reason);
+    }
+}
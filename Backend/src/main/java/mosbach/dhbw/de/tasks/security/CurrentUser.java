@@ -0,0 +1,17 @@
+package mosbach.dhbw.de.tasks.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler parameter that receives the authenticated token owner.
+ * The token is verified and the user is loaded once per request (see {@link TokenAuthenticator}).
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
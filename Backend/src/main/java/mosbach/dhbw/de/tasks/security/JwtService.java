@@ -2,14 +2,19 @@ package mosbach.dhbw.de.tasks.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import mosbach.dhbw.de.tasks.cache.ExpiringCache;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Map;
 
@@ -18,10 +23,15 @@ public class JwtService {
 
     private final SecretKey signingKey;
     private final Duration expiration;
+    private final JwtParser parser;
+
+    // SHA-256(token) -> verified claims, dropped once the token's exp has passed
+    private final ExpiringCache<String, Claims> verifiedTokens;
 
     public JwtService(
             @Value("${mealy.jwt.secret:}") String secret,
-            @Value("${mealy.jwt.expirationMinutes:10080}") long expirationMinutes
+            @Value("${mealy.jwt.expirationMinutes:10080}") long expirationMinutes,
+            @Value("${mealy.jwt.cache.maxEntries:10000}") int cacheMaxEntries
     ) {
         if (secret == null || secret.isBlank()) {
             throw new IllegalArgumentException("mealy.jwt.secret must not be blank");
@@ -31,6 +41,10 @@ public class JwtService {
         }
         this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expiration = Duration.ofMinutes(expirationMinutes);
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.verifiedTokens = new ExpiringCache<>(cacheMaxEntries);
     }
 
     public String generateToken(String subjectEmail, Map<String, Object> extraClaims) {
@@ -59,11 +73,44 @@ public class JwtService {
         }
     }
 
+    /**
+     * Verifies the token once and returns its claims, or null if it is invalid or expired.
+     */
+    public Claims parseValidClaims(String token) {
+        try {
+            return parseClaims(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return verifiedTokens.stats();
+    }
+
     private Claims parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(signingKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("token must not be blank");
+        }
+        String key = digest(token);
+        Claims cached = verifiedTokens.get(key);
+        if (cached != null) return cached;
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        // Only tokens with an expiry are cached, so an entry can never outlive its token
+        Date exp = claims.getExpiration();
+        if (exp != null) {
+            verifiedTokens.put(key, claims, exp.getTime());
+        }
+        return claims;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,12 @@
+package mosbach.dhbw.de.tasks.security;
+
+/**
+ * Thrown when the BCrypt pool cannot take or finish a task in time.
+ * Mapped to 503 so clients retry instead of piling up request threads.
+ */
+public class PasswordHasherBusyException extends RuntimeException {
+
+    public PasswordHasherBusyException(String message) {
+        super(message);
+    }
+}
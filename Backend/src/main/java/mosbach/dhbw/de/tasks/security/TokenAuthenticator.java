@@ -0,0 +1,64 @@
+package mosbach.dhbw.de.tasks.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import mosbach.dhbw.de.tasks.data.impl.UserManager;
+import mosbach.dhbw.de.tasks.model.UserConv;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the token owner of a request exactly once:
+ * one signature check, one user lookup, result kept as request attribute.
+ */
+@Component
+public class TokenAuthenticator {
+
+    public static final String PRINCIPAL_ATTRIBUTE = TokenAuthenticator.class.getName() + ".principal";
+
+    private final UserManager userManager;
+
+    public TokenAuthenticator(UserManager userManager) {
+        this.userManager = userManager;
+    }
+
+    public UserConv authenticate(HttpServletRequest request) {
+        Object cached = request.getAttribute(PRINCIPAL_ATTRIBUTE);
+        if (cached instanceof UserConv user) return user;
+
+        UserConv user = authenticateToken(extractToken(request.getHeader("token"), request.getHeader("Authorization")));
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, user);
+        return user;
+    }
+
+    private UserConv authenticateToken(String token) {
+        if (token == null || token.isBlank()) {
+            throw new AuthenticationFailedException("Missing token");
+        }
+        UserConv user = userManager.resolveTokenOwner(token);
+        if (user == null) {
+            throw new AuthenticationFailedException("Wrong token");
+        }
+        return user;
+    }
+
+    /**
+     * Like {@link #authenticate}, but returns null instead of throwing.
+     */
+    public UserConv tryAuthenticate(HttpServletRequest request) {
+        try {
+            return authenticate(request);
+        } catch (AuthenticationFailedException e) {
+            return null;
+        }
+    }
+
+    // Accepts the legacy "token" header as well as "Authorization: Bearer <jwt>"
+    public static String extractToken(String tokenHeader, String authorizationHeader) {
+        if (tokenHeader != null && !tokenHeader.isBlank()) return tokenHeader;
+        if (authorizationHeader == null || authorizationHeader.isBlank()) return null;
+        String a = authorizationHeader.trim();
+        if (a.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return a.substring(7).trim();
+        }
+        return a;
+    }
+}
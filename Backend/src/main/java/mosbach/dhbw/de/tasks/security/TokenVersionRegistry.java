@@ -0,0 +1,62 @@
+package mosbach.dhbw.de.tasks.security;
+
+import mosbach.dhbw.de.tasks.cache.ExpiringCache;
+import mosbach.dhbw.de.tasks.persistence.repo.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * In-memory view of each user's current token version.
+ * A token is accepted only if its "tv" claim matches; bumping the version revokes older tokens
+ * without a per-request DB query. Entries expire after a TTL and are reloaded on demand,
+ * which also bounds how long another instance can keep a stale version.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    // Marker for deleted users: no token can match it
+    private static final int REVOKED = -1;
+
+    private final UserRepository userRepo;
+    private final ExpiringCache<Long, Integer> versions;
+    private final Duration ttl;
+
+    public TokenVersionRegistry(
+            UserRepository userRepo,
+            @Value("${mealy.auth.tokenVersions.maxEntries:100000}") int maxEntries,
+            @Value("${mealy.auth.tokenVersions.ttlSeconds:600}") long ttlSeconds
+    ) {
+        this.userRepo = userRepo;
+        this.versions = new ExpiringCache<>(maxEntries);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public boolean isCurrent(long userId, int tokenVersion) {
+        Integer current = versions.get(userId);
+        if (current == null) {
+            current = userRepo.findTokenVersionById(userId).orElse(REVOKED);
+            versions.put(userId, current, ttl);
+        }
+        return current != REVOKED && current == tokenVersion;
+    }
+
+    public void update(long userId, int tokenVersion) {
+        versions.put(userId, tokenVersion, ttl);
+    }
+
+    public void revoke(long userId) {
+        versions.put(userId, REVOKED, ttl);
+    }
+
+    // Drop local knowledge; the next check reloads from the DB
+    public void forget(long userId) {
+        versions.invalidate(userId);
+    }
+
+    public Map<String, Object> getStats() {
+        return versions.stats();
+    }
+}
@@ -0,0 +1,155 @@
+package mosbach.dhbw.de.tasks.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mosbach.dhbw.de.tasks.cache.ExpiringCache;
+import mosbach.dhbw.de.tasks.web.RequestDeadline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for write endpoints.
+ * The first request with a key runs the action and stores its response for a TTL; replays get the stored
+ * response, concurrent duplicates wait for the in-flight one. 5xx results and exceptions are not stored,
+ * so the client can retry them. Reusing a key with a different body is rejected with 422.
+ * Keys live in memory only: they are lost on restart and not shared between instances, so the guarantee holds
+ * for a single instance (the current deployment) and within the TTL.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+    private final ExpiringCache<String, Execution> executions;
+    private final Duration ttl;
+    private final long waitMillis;
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+
+    public IdempotencyService(
+            ObjectMapper objectMapper,
+            @Value("${mealy.idempotency.maxEntries:50000}") int maxEntries,
+            @Value("${mealy.idempotency.ttlMinutes:1440}") long ttlMinutes,
+            @Value("${mealy.idempotency.waitMillis:10000}") long waitMillis
+    ) {
+        this.objectMapper = objectMapper;
+        this.executions = new ExpiringCache<>(maxEntries);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * @param scope  who/what the key belongs to (e.g. owner + route), keys are only unique within a scope
+     * @param key    value of the Idempotency-Key header; null/blank runs the action without idempotency
+     * @param body   request body, fingerprinted to detect key reuse with a different request
+     */
+    public ResponseEntity<?> execute(String scope, String key, Object body, Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) return action.get();
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("reason", "Idempotency-Key too long"));
+        }
+
+        // Fingerprint before running the action, handlers may mutate the body
+        String fingerprint = fingerprint(body);
+        String cacheKey = scope + "|" + key;
+
+        Execution mine = new Execution(fingerprint);
+        Execution existing = executions.putIfAbsent(cacheKey, mine, System.currentTimeMillis() + ttl.toMillis());
+        if (existing != null) {
+            return awaitExisting(existing, fingerprint, scope, key, body, action);
+        }
+
+        executed.increment();
+        try {
+            ResponseEntity<?> response = action.get();
+            if (response.getStatusCode().is5xxServerError()) {
+                // Not stored and not handed to waiting duplicates: they (and later retries) run the action again
+                executions.invalidate(cacheKey);
+                mine.result.completeExceptionally(new IllegalStateException("Not stored: " + response.getStatusCode()));
+                return response;
+            }
+            mine.result.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            executions.invalidate(cacheKey);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> out = new LinkedHashMap<>(executions.stats());
+        out.put("executed", executed.sum());
+        out.put("replayed", replayed.sum());
+        out.put("mismatches", mismatches.sum());
+        return out;
+    }
+
+    private ResponseEntity<?> awaitExisting(Execution existing, String fingerprint, String scope, String key,
+                                            Object body, Supplier<ResponseEntity<?>> action) {
+        if (!existing.fingerprint.equals(fingerprint)) {
+            mismatches.increment();
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(Map.of("reason", "Idempotency-Key was already used for a different request"));
+        }
+
+        long wait = RequestDeadline.capMillis(waitMillis);
+        try {
+            ResponseEntity<?> original = existing.result.get(Math.max(0, wait), TimeUnit.MILLISECONDS);
+            replayed.increment();
+            return ResponseEntity.status(original.getStatusCode())
+                    .headers(original.getHeaders())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(original.getBody());
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("reason", "A request with this Idempotency-Key is still in progress"));
+        } catch (ExecutionException e) {
+            // The original attempt failed or answered 5xx and was not stored; run this one for real
+            return execute(scope, key, body, action);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("reason", "A request with this Idempotency-Key is still in progress"));
+        }
+    }
+
+    private String fingerprint(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request body cannot be fingerprinted", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Execution {
+        final String fingerprint;
+        final CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+
+        Execution(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package mosbach.dhbw.de.tasks.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AIMD concurrency limit for the REST layer.
+ * Every request that finishes within the latency target while the limit is in use raises the limit by 1/limit
+ * (about +1 per "round"); a slow or failed request cuts it by a factor, at most once per cooldown.
+ * Requests beyond their class share of the limit are rejected instead of queueing on threads and connections.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF = 0.9;
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final boolean enabled;
+    private final double minLimit;
+    private final double maxLimit;
+    private final long latencyTargetNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private long lastDecreaseNanos;
+
+    private final Map<PriorityClass, LongAdder> accepted = new EnumMap<>(PriorityClass.class);
+    private final Map<PriorityClass, LongAdder> rejected = new EnumMap<>(PriorityClass.class);
+    private final LongAdder decreases = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(
+            @Value("${mealy.concurrency.enabled:true}") boolean enabled,
+            @Value("${mealy.concurrency.initialLimit:50}") int initialLimit,
+            @Value("${mealy.concurrency.minLimit:5}") int minLimit,
+            @Value("${mealy.concurrency.maxLimit:200}") int maxLimit,
+            @Value("${mealy.concurrency.latencyTargetMillis:1000}") long latencyTargetMillis
+    ) {
+        this.enabled = enabled;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMillis);
+        for (PriorityClass p : PriorityClass.values()) {
+            accepted.put(p, new LongAdder());
+            rejected.put(p, new LongAdder());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean tryAcquire(PriorityClass priority) {
+        int allowed = Math.max(1, (int) (limit * priority.getLimitShare()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.get(priority).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.get(priority).increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a permit and feeds the observed latency into the limit.
+     *
+     * @param latencyNanos -1 to release without a sample (e.g. async handling started)
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (latencyNanos < 0) return;
+
+        synchronized (this) {
+            if (failed || latencyNanos > latencyTargetNanos) {
+                long now = System.nanoTime();
+                if (now - lastDecreaseNanos >= DECREASE_COOLDOWN_NANOS) {
+                    limit = Math.max(minLimit, limit * BACKOFF);
+                    lastDecreaseNanos = now;
+                    decreases.increment();
+                }
+            } else if (inFlightBefore >= limit / 2) {
+                // Only grow while the limit is actually being used
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("limit", Math.round(limit * 100) / 100.0);
+        out.put("inFlight", inFlight.get());
+        out.put("decreases", decreases.sum());
+        for (PriorityClass p : PriorityClass.values()) {
+            Map<String, Object> perClass = new LinkedHashMap<>();
+            perClass.put("allowed", Math.max(1, (int) (limit * p.getLimitShare())));
+            perClass.put("accepted", accepted.get(p).sum());
+            perClass.put("rejected", rejected.get(p).sum());
+            out.put(p.name().toLowerCase(), perClass);
+        }
+        return out;
+    }
+}
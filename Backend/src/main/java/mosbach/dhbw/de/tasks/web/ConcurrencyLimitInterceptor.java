@@ -0,0 +1,87 @@
+package mosbach.dhbw.de.tasks.web;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+
+/**
+ * Wraps controller execution in the {@link AdaptiveConcurrencyLimiter}.
+ * Rejected requests get 503 with Retry-After. Handlers marked {@code @LoadPriority(sampleLatency = false)}
+ * release their permit without a latency sample, like async handling.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+    private static final String NO_SAMPLE_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".noSample";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (CorsUtils.isPreFlightRequest(request)) return true;
+        // Async re-dispatches were already admitted by the initial request
+        if (request.getDispatcherType() == DispatcherType.ASYNC) return true;
+
+        if (!limiter.tryAcquire(priorityOf(handler))) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"reason\":\"Server overloaded, please retry\"}");
+            return false;
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        if (!samplesLatency(handler)) request.setAttribute(NO_SAMPLE_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Long-lived async responses hold no request thread; free the permit without a latency sample
+        if (request.getAttribute(START_ATTRIBUTE) != null) {
+            request.removeAttribute(START_ATTRIBUTE);
+            limiter.release(-1, false);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (!(start instanceof Long startNanos)) return;
+        request.removeAttribute(START_ATTRIBUTE);
+        if (request.getAttribute(NO_SAMPLE_ATTRIBUTE) != null) {
+            request.removeAttribute(NO_SAMPLE_ATTRIBUTE);
+            limiter.release(-1, false);
+            return;
+        }
+        boolean failed = ex != null || response.getStatus() >= 500;
+        limiter.release(System.nanoTime() - startNanos, failed);
+    }
+
+    private static PriorityClass priorityOf(Object handler) {
+        if (handler instanceof HandlerMethod hm) {
+            LoadPriority p = hm.getMethodAnnotation(LoadPriority.class);
+            if (p != null) return p.value();
+        }
+        return PriorityClass.NORMAL;
+    }
+
+    private static boolean samplesLatency(Object handler) {
+        if (handler instanceof HandlerMethod hm) {
+            LoadPriority p = hm.getMethodAnnotation(LoadPriority.class);
+            if (p != null) return p.sampleLatency();
+        }
+        return true;
+    }
+}
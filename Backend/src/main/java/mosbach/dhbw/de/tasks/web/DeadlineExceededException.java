@@ -0,0 +1,11 @@
+package mosbach.dhbw.de.tasks.web;
+
+/**
+ * Thrown when work is about to start after the request deadline has passed.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,36 @@
+package mosbach.dhbw.de.tasks.web;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Starts the {@link RequestDeadline} for each API request and clears it afterwards.
+ */
+public class DeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    private final RouteDeadlines routeDeadlines;
+
+    public DeadlineInterceptor(RouteDeadlines routeDeadlines) {
+        this.routeDeadlines = routeDeadlines;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            RequestDeadline.start(routeDeadlines.budgetFor(request));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestDeadline.clear();
+    }
+}
@@ -0,0 +1,21 @@
+package mosbach.dhbw.de.tasks.web;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the load-shedding class of a handler method. Handlers without it are {@link PriorityClass#NORMAL}.
+ * Long-running handlers (e.g. bulk import) set {@code sampleLatency = false}: they still take a permit, but their
+ * latency says nothing about overload and would only shrink the limit for everyone else.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LoadPriority {
+    PriorityClass value();
+
+    boolean sampleLatency() default true;
+}
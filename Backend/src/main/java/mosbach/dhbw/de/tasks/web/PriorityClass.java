@@ -0,0 +1,21 @@
+package mosbach.dhbw.de.tasks.web;
+
+/**
+ * Load-shedding classes. Each class may use only its share of the current concurrency limit,
+ * so under pressure SHEDDABLE work is rejected first and CRITICAL work last.
+ */
+public enum PriorityClass {
+    CRITICAL(1.0),
+    NORMAL(0.85),
+    SHEDDABLE(0.6);
+
+    private final double limitShare;
+
+    PriorityClass(double limitShare) {
+        this.limitShare = limitShare;
+    }
+
+    public double getLimitShare() {
+        return limitShare;
+    }
+}
@@ -0,0 +1,57 @@
+package mosbach.dhbw.de.tasks.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mosbach.dhbw.de.tasks.model.UserConv;
+import mosbach.dhbw.de.tasks.security.TokenAuthenticator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Applies one {@link RateLimiter} to the routes it is registered for.
+ * Keys by client IP, or by token owner when perUser is set (falling back to the IP without a valid token).
+ * Throttled requests get 429 with Retry-After.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter limiter;
+    private final Set<String> methods;
+    private final boolean perUser;
+    private final TokenAuthenticator tokenAuthenticator;
+
+    public RateLimitInterceptor(RateLimiter limiter, Set<String> methods, boolean perUser, TokenAuthenticator tokenAuthenticator) {
+        this.limiter = limiter;
+        this.methods = methods;
+        this.perUser = perUser;
+        this.tokenAuthenticator = tokenAuthenticator;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (CorsUtils.isPreFlightRequest(request)) return true;
+        if (!methods.isEmpty() && !methods.contains(request.getMethod())) return true;
+
+        long retryAfterMillis = limiter.tryAcquire(clientKey(request));
+        if (retryAfterMillis == 0) return true;
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"reason\":\"Too many requests\"}");
+        return false;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        if (perUser) {
+            UserConv user = tokenAuthenticator.tryAuthenticate(request);
+            if (user != null) return "user:" + user.getEmail();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
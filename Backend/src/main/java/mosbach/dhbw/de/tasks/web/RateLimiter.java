@@ -0,0 +1,110 @@
+package mosbach.dhbw.de.tasks.web;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket rate limiter keyed by client (IP or user).
+ * Buckets live in lock-striped LRU maps, so memory stays bounded and unrelated keys
+ * do not contend on one lock. An evicted bucket simply starts full again.
+ */
+public class RateLimiter {
+
+    private static final int STRIPES = 64;
+
+    private final String name;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final int maxKeysPerStripe;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    public RateLimiter(String name, int capacity, int perMinute, int maxKeys) {
+        this.name = name;
+        this.capacity = Math.max(1, capacity);
+        this.tokensPerNano = Math.max(1, perMinute) / (double) TimeUnit.MINUTES.toNanos(1);
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maxKeysPerStripe);
+        }
+    }
+
+    /**
+     * Takes one token for the given key.
+     *
+     * @return 0 if the request is allowed, otherwise the milliseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        Stripe stripe = stripes[spread(key.hashCode()) & (STRIPES - 1)];
+        long waitNanos;
+        synchronized (stripe) {
+            Bucket b = stripe.buckets.get(key);
+            if (b == null) {
+                b = new Bucket(capacity, now);
+                stripe.buckets.put(key, b);
+            }
+            b.tokens = Math.min(capacity, b.tokens + (now - b.lastRefillNanos) * tokensPerNano);
+            b.lastRefillNanos = now;
+            if (b.tokens >= 1.0) {
+                b.tokens -= 1.0;
+                allowed.increment();
+                return 0;
+            }
+            waitNanos = (long) Math.ceil((1.0 - b.tokens) / tokensPerNano);
+        }
+        throttled.increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Object> getStats() {
+        int keys = 0;
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                keys += s.buckets.size();
+            }
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("capacity", (long) capacity);
+        out.put("perMinute", Math.round(tokensPerNano * TimeUnit.MINUTES.toNanos(1)));
+        out.put("trackedKeys", keys);
+        out.put("allowed", allowed.sum());
+        out.put("throttled", throttled.sum());
+        return out;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long lastRefillNanos;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+    }
+
+    private static final class Stripe {
+        final LinkedHashMap<String, Bucket> buckets;
+
+        Stripe(int maxKeys) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+}
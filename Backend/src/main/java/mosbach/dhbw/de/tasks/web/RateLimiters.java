@@ -0,0 +1,68 @@
+package mosbach.dhbw.de.tasks.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The configured per-route limiters (see mealy.ratelimit.* in application.properties).
+ */
+@Component
+public class RateLimiters {
+
+    private final boolean enabled;
+    private final RateLimiter login;
+    private final RateLimiter register;
+    private final RateLimiter shared;
+    private final RateLimiter user;
+
+    public RateLimiters(
+            @Value("${mealy.ratelimit.enabled:true}") boolean enabled,
+            @Value("${mealy.ratelimit.maxKeys:100000}") int maxKeys,
+            @Value("${mealy.ratelimit.login.capacity:10}") int loginCapacity,
+            @Value("${mealy.ratelimit.login.perMinute:10}") int loginPerMinute,
+            @Value("${mealy.ratelimit.register.capacity:5}") int registerCapacity,
+            @Value("${mealy.ratelimit.register.perMinute:2}") int registerPerMinute,
+            @Value("${mealy.ratelimit.shared.capacity:60}") int sharedCapacity,
+            @Value("${mealy.ratelimit.shared.perMinute:120}") int sharedPerMinute,
+            @Value("${mealy.ratelimit.user.capacity:120}") int userCapacity,
+            @Value("${mealy.ratelimit.user.perMinute:600}") int userPerMinute
+    ) {
+        this.enabled = enabled;
+        this.login = new RateLimiter("login", loginCapacity, loginPerMinute, maxKeys);
+        this.register = new RateLimiter("register", registerCapacity, registerPerMinute, maxKeys);
+        this.shared = new RateLimiter("shared", sharedCapacity, sharedPerMinute, maxKeys);
+        this.user = new RateLimiter("user", userCapacity, userPerMinute, maxKeys);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public RateLimiter login() {
+        return login;
+    }
+
+    public RateLimiter register() {
+        return register;
+    }
+
+    public RateLimiter shared() {
+        return shared;
+    }
+
+    public RateLimiter user() {
+        return user;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (RateLimiter l : List.of(login, register, shared, user)) {
+            out.put(l.getName(), l.getStats());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,51 @@
+package mosbach.dhbw.de.tasks.web;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request deadline bound to the handling thread.
+ * Set by {@link DeadlineInterceptor}; read by the transaction manager (JDBC query timeouts)
+ * and by outbound calls (HTTP timeouts) so the whole request stays within its budget.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(Duration budget) {
+        DEADLINE_NANOS.set(System.nanoTime() + budget.toNanos());
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    public static boolean isActive() {
+        return DEADLINE_NANOS.get() != null;
+    }
+
+    /**
+     * Remaining budget in milliseconds (may be negative), or Long.MAX_VALUE without a deadline.
+     */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) return Long.MAX_VALUE;
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    /**
+     * Caps a configured timeout to the remaining budget.
+     */
+    public static long capMillis(long timeoutMillis) {
+        return Math.min(timeoutMillis, remainingMillis());
+    }
+
+    public static void checkNotExpired() {
+        if (remainingMillis() <= 0) {
+            throw new DeadlineExceededException("Request deadline exceeded");
+        }
+    }
+}
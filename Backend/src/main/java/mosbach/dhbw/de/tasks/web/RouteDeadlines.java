@@ -0,0 +1,59 @@
+package mosbach.dhbw.de.tasks.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request budgets per route.
+ * mealy.deadline.routes is a comma-separated list of "METHOD /path/pattern=millis" entries
+ * (METHOD may be *); the first match wins, everything else gets mealy.deadline.defaultMillis.
+ */
+@Component
+public class RouteDeadlines {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Duration defaultBudget;
+    private final List<Rule> rules = new ArrayList<>();
+
+    public RouteDeadlines(
+            @Value("${mealy.deadline.defaultMillis:10000}") long defaultMillis,
+            @Value("${mealy.deadline.routes:}") String routes
+    ) {
+        this.defaultBudget = Duration.ofMillis(defaultMillis);
+        if (routes == null || routes.isBlank()) return;
+
+        for (String entry : routes.split(",")) {
+            String e = entry.trim();
+            if (e.isEmpty()) continue;
+            int eq = e.lastIndexOf('=');
+            int space = e.indexOf(' ');
+            if (eq < 0 || space < 0 || space > eq) {
+                throw new IllegalArgumentException("Invalid mealy.deadline.routes entry: " + e);
+            }
+            rules.add(new Rule(
+                    e.substring(0, space).trim().toUpperCase(),
+                    e.substring(space + 1, eq).trim(),
+                    Duration.ofMillis(Long.parseLong(e.substring(eq + 1).trim()))
+            ));
+        }
+    }
+
+    public Duration budgetFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Rule r : rules) {
+            if ((r.method.equals("*") || r.method.equals(request.getMethod())) && pathMatcher.match(r.pattern, path)) {
+                return r.budget;
+            }
+        }
+        return defaultBudget;
+    }
+
+    private record Rule(String method, String pattern, Duration budget) {
+    }
+}
@@ -104,18 +104,77 @@ $(function () {
     });
   };
 
+  // --- Nährwerte noch in Berechnung: auf Server-Event warten statt zu pollen ---
+  // Das Token kommt nie in die URL: der Stream wird mit einem kurzlebigen Einmal-Ticket geöffnet
+  let events = null;
+  let opening = false;
+  const waitForNutrition = () => {
+    if (events || opening || !window.EventSource) return;
+    opening = true;
+    $.ajax({
+      url: `${API}/events/nutrition/ticket`,
+      type: "POST",
+      headers: window.AUTH.authHeaders(),
+      success: (res) => {
+        opening = false;
+        openStream(res?.ticket);
+      },
+      error: (xhr) => {
+        opening = false;
+        console.warn("SSE-Ticket nicht erhalten:", xhr.status);
+      },
+    });
+  };
+
+  const openStream = (ticket) => {
+    if (!ticket) return;
+    events = new EventSource(`${API}/events/nutrition?ticket=${encodeURIComponent(ticket)}`);
+    // Ist die Berechnung zwischen GET und Verbindungsaufbau fertig geworden, kam das Event ohne Abonnenten:
+    // nach dem Öffnen einmal nachladen, der Stream wird geschlossen, falls nicht mehr PENDING
+    events.onopen = () => loadRecipe();
+    // Ein Ticket gilt nur einmal: statt des automatischen Reconnects ein neues Ticket holen
+    events.onerror = () => {
+      events.close();
+      events = null;
+      setTimeout(loadRecipe, 5000); // lädt neu und öffnet den Stream nur, falls noch PENDING
+    };
+    events.addEventListener("nutrition", (e) => {
+      let data = null;
+      try {
+        data = JSON.parse(e.data);
+      } catch (err) {
+        return;
+      }
+      if (String(data?.recipeId) !== String(id)) return;
+      events.close();
+      events = null;
+      loadRecipe();
+    });
+  };
+
   // --- GET Recipe ---
-  $.ajax({
-    url: `${DETAIL_URL}/${id}`,
-    type: "GET",
-    headers: window.AUTH.authHeaders(),
-    success: showRecipe,
-    error: (xhr) => {
-      console.error("GET Fehler:", xhr.status, xhr.responseText);
-      alert("Fehler beim Abrufen des Rezepts.");
-      location.href = "RecipeCollection.html";
-    },
-  });
+  const loadRecipe = () => {
+    $.ajax({
+      url: `${DETAIL_URL}/${id}`,
+      type: "GET",
+      headers: window.AUTH.authHeaders(),
+      success: (r) => {
+        showRecipe(r);
+        if (r?.nutritionStatus === "PENDING") {
+          waitForNutrition();
+        } else if (events) {
+          events.close();
+          events = null;
+        }
+      },
+      error: (xhr) => {
+        console.error("GET Fehler:", xhr.status, xhr.responseText);
+        alert("Fehler beim Abrufen des Rezepts.");
+        location.href = "RecipeCollection.html";
+      },
+    });
+  };
+  loadRecipe();
 
   // --- DELETE Recipe ---
   $("#delete-recipe-btn").on("click", (e) => {